@@ -0,0 +1,69 @@
+package de.emotreco.benchmarks;
+
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.facialexpressionmodel.FacialExpression;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.main.dempster.DempsterHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulation of a certain amount of measures with every engine and in every order of the DempsterHandler.
+ * The measures are taken from the described frames of the first sample file. One operation is one accumulation.
+ */
+@State(Scope.Thread)
+public class AccumulationBenchmark {
+
+    private static final String SAMPLE_FILE = "data/emo_muster_1_1.csv";
+
+    @Param({ "2", "7", "32", "256" })
+    public int measures;
+
+    @Param({ "LIST", "BITMASK" })
+    public DempsterHandler.Engine engine;
+
+    @Param({ "QUEUE", "LEFT_FOLD", "BALANCED_TREE" })
+    public DempsterHandler.Order order;
+
+    @Param({ "false", "true" })
+    public boolean parallel;
+
+    private final List<FacialExpression> expressions = new ArrayList<>();
+    private int offset;
+
+    @Setup
+    public void describeSampleFile() throws IOException {
+        FeatureFrame[] featureFrames = new FeatureImporter().convert(new CSVImporter(SAMPLE_FILE).readFile());
+        FacialExpressionDescriptor descriptor = new FacialExpressionDescriptor(featureFrames);
+        for (FeatureFrame featureFrame : featureFrames) {
+            for (FacialExpression expression : descriptor.describeFrame(featureFrame)) {
+                if (expression != null) {
+                    expressions.add(expression);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int accumulateAllMeasures() {
+        DempsterHandler dempsterHandler = new DempsterHandler(5, engine);
+        dempsterHandler.setOrder(order);
+        dempsterHandler.setParallel(parallel);
+        for (int i = 0; i < measures; i++) {
+            FacialExpression expression = expressions.get((offset + i) % expressions.size());
+            dempsterHandler.addMeasure().addEntry(expression.getMatchingBinaries(), expression.getConfidence());
+        }
+        offset = (offset + measures) % expressions.size();
+        dempsterHandler.accumulateAllMeasures();
+        return dempsterHandler.getFirstMeasure().getMeasureEntrys().size();
+    }
+}
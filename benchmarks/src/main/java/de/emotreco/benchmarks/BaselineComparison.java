@@ -0,0 +1,105 @@
+package de.emotreco.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints the change of throughput and allocation between two JMH result files written with -rf csv,
+ * so a performance change can be judged against a baseline. The allocation is the gc.alloc.rate.norm
+ * of the GC profiler in bytes per operation.
+ *
+ * Arguments: baseline.csv results.csv
+ */
+public class BaselineComparison {
+
+    private static final String ALLOCATION = ":gc.alloc.rate.norm";
+
+    /**
+     * Alternative entry point for comparing two result files.
+     * @param args the baseline and the current result file
+     * @throws IOException if a result file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: BaselineComparison baseline.csv results.csv");
+            return;
+        }
+        Map<String, Double> baseline = readScores(args[0]);
+        Map<String, Double> results = readScores(args[1]);
+
+        for (Map.Entry<String, Double> result : results.entrySet()) {
+            String key = result.getKey();
+            if (key.substring(0, key.indexOf(' ')).contains(":")) {
+                continue;
+            }
+            Double reference = baseline.get(key);
+            if (reference == null) {
+                System.out.println(String.format("%-90s new", key));
+                continue;
+            }
+            String allocationKey = key.replaceFirst(" ", ALLOCATION + " ");
+            String allocation = "";
+            if (baseline.containsKey(allocationKey) && results.containsKey(allocationKey)) {
+                allocation = String.format(", allocation %.1f -> %.1f B/op", baseline.get(allocationKey), results.get(allocationKey));
+            }
+            System.out.println(String.format("%-90s throughput x%.2f%s", key, result.getValue() / reference, allocation));
+        }
+    }
+
+    /**
+     * Read the scores of a result file.
+     *
+     * @param fileName a JMH result file in csv format
+     * @return score of every benchmark and secondary metric, keyed by its name followed by its parameters
+     * @throws IOException if the file could not be read
+     */
+    private static Map<String, Double> readScores(String fileName) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(fileName));
+        String[] header = split(lines.get(0));
+        int scoreColumn = indexOf(header, "Score");
+        List<Integer> paramColumns = new ArrayList<>();
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].startsWith("Param: ")) {
+                paramColumns.add(i);
+            }
+        }
+
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = split(line);
+            StringBuilder key = new StringBuilder(columns[0]).append(' ');
+            for (int column : paramColumns) {
+                if (!columns[column].isEmpty()) {
+                    key.append(header[column].substring("Param: ".length())).append('=').append(columns[column]).append(',');
+                }
+            }
+            if (key.charAt(key.length() - 1) == ',') {
+                key.setLength(key.length() - 1);
+            }
+            scores.put(key.toString(), Double.parseDouble(columns[scoreColumn]));
+        }
+        return scores;
+    }
+
+    private static String[] split(String line) {
+        String[] columns = line.split(",", -1);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columns[i].replace("\"", "");
+        }
+        return columns;
+    }
+
+    private static int indexOf(String[] header, String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("The result file has no column " + name + ".");
+    }
+}
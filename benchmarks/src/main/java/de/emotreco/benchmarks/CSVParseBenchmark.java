@@ -0,0 +1,54 @@
+package de.emotreco.benchmarks;
+
+import de.emotreco.csvmodel.CSVColumnStore;
+import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Parsing stage: the rows of a synthetic recording into CSVFrames, column stores and a stream of frames.
+ * One operation parses the whole file.
+ */
+@State(Scope.Benchmark)
+public class CSVParseBenchmark {
+
+    private String fileName;
+    private List<String> rows;
+
+    @Setup
+    public void readRows(SyntheticFileState recording) throws IOException {
+        fileName = recording.getFileName();
+        rows = Files.readAllLines(recording.file);
+        rows.remove(0);
+    }
+
+    @Benchmark
+    public void parseRows(Blackhole blackhole) {
+        for (String row : rows) {
+            blackhole.consume(new CSVFrame(row));
+        }
+    }
+
+    @Benchmark
+    public CSVFrame[] readFile() throws IOException {
+        return new CSVImporter(fileName).readFile();
+    }
+
+    @Benchmark
+    public CSVColumnStore readColumns() throws IOException {
+        return new CSVImporter(fileName).readColumns();
+    }
+
+    @Benchmark
+    public long streamFile() throws IOException {
+        return new CSVImporter(fileName).streamFile().count();
+    }
+}
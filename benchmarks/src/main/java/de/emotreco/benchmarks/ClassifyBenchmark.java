@@ -0,0 +1,72 @@
+package de.emotreco.benchmarks;
+
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.csvmodel.OffHeapCSVColumnStore;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.CSVFeatureView;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.featuremodel.FrameStore;
+import de.emotreco.main.ClassificationContext;
+import de.emotreco.main.ClassificationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+
+/**
+ * Classification stage: every frame of a synthetic recording is described and its measures are accumulated,
+ * from feature frames, from a FrameStore and from the off-heap columns of the file. One operation classifies the whole file.
+ */
+@State(Scope.Benchmark)
+public class ClassifyBenchmark {
+
+    private FeatureFrame[] featureFrames;
+    private FrameStore store;
+    private OffHeapCSVColumnStore offHeapColumns;
+    private CSVFeatureView offHeapFeatures;
+    private ClassificationContext context;
+    private final ClassificationResult result = new ClassificationResult();
+
+    @Setup
+    public void describeFile(SyntheticFileState recording) throws IOException {
+        featureFrames = new FeatureImporter().convert(new CSVImporter(recording.getFileName()).readFile());
+        store = FrameStore.read(recording.getFileName());
+        offHeapColumns = new CSVImporter(recording.getFileName()).readColumnsOffHeap();
+        offHeapFeatures = new CSVFeatureView(offHeapColumns);
+        context = new ClassificationContext(new FacialExpressionDescriptor(featureFrames));
+    }
+
+    @Benchmark
+    public void classifyFeatureFrames(Blackhole blackhole) {
+        for (FeatureFrame featureFrame : featureFrames) {
+            context.classifyFrame(featureFrame, result);
+            blackhole.consume(result.getWinnerIndex());
+        }
+    }
+
+    @Benchmark
+    public void classifyFrameStore(Blackhole blackhole) {
+        for (int frame = 0; frame < store.getFrameCount(); frame++) {
+            context.classifyFrame(store, frame, result);
+            blackhole.consume(result.getWinnerIndex());
+        }
+    }
+
+    @Benchmark
+    public void classifyOffHeapColumns(Blackhole blackhole) {
+        for (int frame = 0; frame < offHeapFeatures.getFrameCount(); frame++) {
+            context.classifyFrame(offHeapFeatures, frame, result);
+            blackhole.consume(result.getWinnerIndex());
+        }
+    }
+
+    @TearDown
+    public void closeColumns() {
+        offHeapColumns.close();
+    }
+}
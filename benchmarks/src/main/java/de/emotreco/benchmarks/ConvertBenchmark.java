@@ -0,0 +1,44 @@
+package de.emotreco.benchmarks;
+
+import de.emotreco.csvmodel.CSVColumnStore;
+import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.featuremodel.FrameStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Conversion stage: the parsed columns of a synthetic recording into feature frames and into a FrameStore.
+ * One operation converts the whole file.
+ */
+@State(Scope.Benchmark)
+public class ConvertBenchmark {
+
+    private CSVFrame[] csvFrames;
+    private CSVColumnStore columns;
+
+    @Setup
+    public void parseFile(SyntheticFileState recording) throws IOException {
+        CSVImporter importer = new CSVImporter(recording.getFileName());
+        csvFrames = importer.readFile();
+        columns = importer.readColumns();
+    }
+
+    @Benchmark
+    public FeatureFrame[] convert() {
+        return new FeatureImporter().convert(csvFrames);
+    }
+
+    @Benchmark
+    public FrameStore appendToFrameStore() {
+        FrameStore store = new FrameStore();
+        store.append(columns);
+        return store;
+    }
+}
@@ -0,0 +1,69 @@
+package de.emotreco.benchmarks;
+
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.facialexpressionmodel.MembershipBlock;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+
+/**
+ * Description stage: the features of every frame of a synthetic recording into fuzzy facial expressions,
+ * frame by frame, feature by feature and block by block. One operation describes the whole file.
+ */
+@State(Scope.Benchmark)
+public class DescribeBenchmark {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private FeatureFrame[] featureFrames;
+    private FacialExpressionDescriptor descriptor;
+    // columns[feature][frame]
+    private float[][] columns;
+    private MembershipBlock block;
+
+    @Setup
+    public void convertFile(SyntheticFileState recording) throws IOException {
+        featureFrames = new FeatureImporter().convert(new CSVImporter(recording.getFileName()).readFile());
+        descriptor = new FacialExpressionDescriptor(featureFrames);
+        columns = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length][featureFrames.length];
+        for (int i = 0; i < columns.length; i++) {
+            for (int frame = 0; frame < featureFrames.length; frame++) {
+                columns[i][frame] = featureFrames[frame].getFeature(i);
+            }
+        }
+        block = new MembershipBlock(BLOCK_SIZE);
+    }
+
+    @Benchmark
+    public void describeFrame(Blackhole blackhole) {
+        for (FeatureFrame featureFrame : featureFrames) {
+            blackhole.consume(descriptor.describeFrame(featureFrame));
+        }
+    }
+
+    @Benchmark
+    public void describeFeature(Blackhole blackhole) {
+        for (FeatureFrame featureFrame : featureFrames) {
+            for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+                blackhole.consume(descriptor.describeFeature(i, featureFrame.getFeature(i)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void describeFeatures(Blackhole blackhole) {
+        for (int i = 0; i < columns.length; i++) {
+            for (int offset = 0; offset < columns[i].length; offset += block.getCapacity()) {
+                descriptor.describeFeatures(i, columns[i], offset, Math.min(block.getCapacity(), columns[i].length - offset), block);
+                blackhole.consume(block.getIntensity(0));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.emotreco.benchmarks;
+
+import de.emotreco.main.AsyncResultSink;
+import de.emotreco.main.EmotionClassifier;
+import de.emotreco.main.ResultSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * The whole pipeline: a synthetic recording is read, described, classified and every result is printed to a sink.
+ * The printed text is discarded. One operation classifies the whole file.
+ */
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    /**
+     * The sink the results are printed to: formatted text on the calling thread, formatted text on a background thread
+     * or nothing at all.
+     */
+    public enum Sink { PRINT, ASYNC, SILENT }
+
+    @Param({ "PRINT", "ASYNC", "SILENT" })
+    public Sink sink;
+
+    private String fileName;
+    private ResultSink resultSink;
+    private EmotionClassifier classifier;
+
+    @Setup
+    public void createClassifier(SyntheticFileState recording) {
+        fileName = recording.getFileName();
+        PrintStream discarding = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+        switch (sink) {
+            case PRINT:
+                classifier = new EmotionClassifier(discarding);
+                break;
+            case ASYNC:
+                resultSink = new AsyncResultSink(discarding);
+                classifier = new EmotionClassifier(resultSink);
+                break;
+            default:
+                classifier = new EmotionClassifier(ResultSink.SILENT);
+        }
+    }
+
+    @TearDown
+    public void closeSink() {
+        if (resultSink != null) {
+            resultSink.close();
+        }
+    }
+
+    @Benchmark
+    public Object classifyFile() {
+        return classifier.classifyFileResults(fileName);
+    }
+}
@@ -0,0 +1,66 @@
+package de.emotreco.benchmarks;
+
+import de.emotreco.main.dempster.DempsterHandler;
+import de.emotreco.main.dempster.FrameOfDiscernment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Accumulation of random measures over a frame of discernment of a certain size with every engine.
+ * Every measure has one focal set holding each alternative with a probability of 3/4. One operation is one accumulation.
+ */
+@State(Scope.Thread)
+public class HypothesesBenchmark {
+
+    private static final int MEASURES = 7;
+    private static final int FOCAL_SETS = 1024;
+
+    @Param({ "5", "16", "64" })
+    public int hypotheses;
+
+    @Param({ "LIST", "BITMASK" })
+    public DempsterHandler.Engine engine;
+
+    private final List<List<Integer>> focalSets = new ArrayList<>();
+    private final List<Double> confidences = new ArrayList<>();
+    private FrameOfDiscernment frame;
+    private int offset;
+
+    @Setup
+    public void generateMeasures() {
+        Random random = new Random(1);
+        while (focalSets.size() < FOCAL_SETS) {
+            List<Integer> values = new ArrayList<>(hypotheses);
+            int ones = 0;
+            for (int i = 0; i < hypotheses; i++) {
+                int value = random.nextInt(4) == 0 ? 0 : 1;
+                values.add(value);
+                ones += value;
+            }
+            if (ones > 0 && ones < hypotheses) {
+                focalSets.add(values);
+                confidences.add(0.1 + 0.8 * random.nextDouble());
+            }
+        }
+        frame = FrameOfDiscernment.unnamed(hypotheses);
+    }
+
+    @Benchmark
+    public int accumulateAllMeasures() {
+        DempsterHandler dempsterHandler = new DempsterHandler(frame, engine);
+        for (int i = 0; i < MEASURES; i++) {
+            int measure = (offset + i) % focalSets.size();
+            dempsterHandler.addMeasure().addEntry(focalSets.get(measure), confidences.get(measure));
+        }
+        offset = (offset + MEASURES) % focalSets.size();
+        dempsterHandler.accumulateAllMeasures();
+        return dempsterHandler.getFirstMeasure().getMeasureEntrys().size();
+    }
+}
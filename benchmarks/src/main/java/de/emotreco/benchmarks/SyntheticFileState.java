@@ -0,0 +1,39 @@
+package de.emotreco.benchmarks;
+
+import de.emotreco.test.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A synthetic recording written by the SyntheticDataGenerator once per trial and deleted afterwards.
+ * Every stage benchmark is parameterised by the amount of frames of this file.
+ */
+@State(Scope.Benchmark)
+public class SyntheticFileState {
+
+    @Param({ "1000", "100000" })
+    public int frames;
+
+    Path file;
+
+    @Setup
+    public void writeFile() throws IOException {
+        file = SyntheticDataGenerator.generateTemporaryFile(frames);
+    }
+
+    @TearDown
+    public void deleteFile() throws IOException {
+        Files.delete(file);
+    }
+
+    String getFileName() {
+        return file.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package de.emotreco.csvmodel;
+
+/**
+ * Read access to the values of csv rows stored column by column as primitive ints, see HeapCSVColumnStore
+ * and OffHeapCSVColumnStore. Every cell is either a value or empty, empty cells read as 0.
+ * CSVFrame objects can be obtained as lightweight views on single rows.
+ */
+public interface CSVColumnStore {
+
+    int getColumnCount();
+
+    int getRowCount();
+
+    /**
+     * Check whether a cell was left empty in the csv file.
+     *
+     * @param column index of the column, see CSVImporter.COLUMN_NAMES
+     * @param row index of the row, 0 is the first row after the header
+     * @return true if no data was measured
+     */
+    boolean isEmpty(int column, int row);
+
+    /**
+     * Get the value of a cell without boxing it. Check <code>isEmpty</code> first.
+     *
+     * @param column index of the column, see CSVImporter.COLUMN_NAMES
+     * @param row index of the row, 0 is the first row after the header
+     * @return the value, 0 for empty cells
+     */
+    int getInt(int column, int row);
+
+    /**
+     * Get the value of a cell.
+     *
+     * @param column index of the column, see CSVImporter.COLUMN_NAMES
+     * @param row index of the row, 0 is the first row after the header
+     * @return the value or null for empty cells
+     */
+    default Integer get(int column, int row) {
+        return isEmpty(column, row) ? null : getInt(column, row);
+    }
+
+    /**
+     * Get a view on a single row.
+     *
+     * @param row index of the row, 0 is the first row after the header
+     * @return a CSVFrame reading from this store
+     */
+    default CSVFrame getFrame(int row) {
+        return new CSVFrame(this, row);
+    }
+
+    /**
+     * Get views on all rows.
+     *
+     * @return CSVFrame[] - Representing all rows of the store
+     */
+    default CSVFrame[] getFrames() {
+        CSVFrame[] csvFrames = new CSVFrame[getRowCount()];
+        for (int row = 0; row < csvFrames.length; row++) {
+            csvFrames[row] = getFrame(row);
+        }
+        return csvFrames;
+    }
+}
@@ -5,41 +5,125 @@ import java.util.LinkedHashMap;
 
 /**
  * Represents a row in the csv file format.
+ * The values of an imported file are kept in a CSVColumnStore, such a CSVFrame is only a view on one of its rows.
+ * A row parsed on its own keeps its values in a primitive array.
  */
 public class CSVFrame {
 
-    // Possible keys: x, y, xright, ylow, fob, lea, lbd, rea, rbd, hnc, vnc, lcw, rcw, ma;
-    private HashMap<String, Integer> columns = new LinkedHashMap<>();
-    private String[] columnArray;
+    // Either a view on a row of a store, or a row parsed on its own
+    private final CSVColumnStore store;
+    private final int row;
+    // Values of a row parsed on its own, 0 for empty columns
+    private final int[] values;
+    // Bit i is set if column i of a row parsed on its own was left empty
+    private final int emptyColumns;
 
+    /**
+     * Parse a single csv row, e.g. while streaming a file. The values are kept in this frame, without a store.
+     *
+     * @param csvRow the columns of the row separated by ;
+     */
     public CSVFrame(String csvRow) {
-        columnArray = csvRow.split(";");
-
-        // Validate amount of columns
-        if (columnArray.length != CSVImporter.COLUMN_NAMES.length) {
+        // Validate amount of columns, trailing empty columns count as well
+        int columnCount = 1;
+        for (int i = 0; i < csvRow.length(); i++) {
+            if (csvRow.charAt(i) == ';') {
+                columnCount++;
+            }
+        }
+        if (columnCount != CSVImporter.COLUMN_NAMES.length) {
             throw new RuntimeException("Found a row that does not match expected format.\nRow: "
-                    + csvRow+ " has " + columnArray.length + ".\nA row should have " + CSVImporter.COLUMN_NAMES.length + " columns. Columns can be empty but have to append separation token anyway (;).");
+                    + csvRow+ " has " + columnCount + ".\nA row should have " + CSVImporter.COLUMN_NAMES.length + " columns. Columns can be empty but have to append separation token anyway (;).");
         }
 
-        for (int i = 0; i < CSVImporter.COLUMN_NAMES.length; i++) {
-            // Only put the key if there was data measured
-            if (columnArray[i].length() > 0) {
-                columns.put(CSVImporter.COLUMN_NAMES[i],Integer.parseInt(columnArray[i]));
+        store = null;
+        row = 0;
+        values = new int[CSVImporter.COLUMN_NAMES.length];
+        int empty = 0;
+        int column = 0, cellStart = 0;
+        for (int i = 0; i <= csvRow.length(); i++) {
+            if (i == csvRow.length() || csvRow.charAt(i) == ';') {
+                // Only put the value if there was data measured
+                if (i > cellStart) {
+                    values[column] = Integer.parseInt(csvRow, cellStart, i, 10);
+                } else {
+                    empty |= 1 << column;
+                }
+                column++;
+                cellStart = i + 1;
             }
         }
+        emptyColumns = empty;
+    }
+
+    /**
+     * Create a view on a row of a store.
+     *
+     * @param store the store holding the values
+     * @param row index of the row within the store
+     */
+    CSVFrame(CSVColumnStore store, int row) {
+        this.store = store;
+        this.row = row;
+        this.values = null;
+        this.emptyColumns = 0;
+    }
+
+    /**
+     * Check whether a column was left empty, without boxing its value.
+     *
+     * @param column index of the column, see CSVImporter.COLUMN_NAMES
+     * @return true if no data was measured
+     */
+    public boolean isEmpty(int column) {
+        return store == null ? (emptyColumns & (1 << column)) != 0 : store.isEmpty(column, row);
+    }
+
+    /**
+     * Get the value of a column without boxing it. Check <code>isEmpty</code> first.
+     *
+     * @param column index of the column, see CSVImporter.COLUMN_NAMES
+     * @return the value, 0 for empty columns
+     */
+    public int getInt(int column) {
+        return store == null ? values[column] : store.getInt(column, row);
     }
 
+    private Integer get(int column) {
+        return isEmpty(column) ? null : getInt(column);
+    }
+
+    /**
+     * Create a map of all measured columns. Empty columns are left out.
+     *
+     * @return column names mapped to their values in csv order
+     */
     public HashMap<String, Integer> getColumns() {
+        HashMap<String, Integer> columns = new LinkedHashMap<>();
+        for (int i = 0; i < CSVImporter.COLUMN_NAMES.length; i++) {
+            if (!isEmpty(i)) {
+                columns.put(CSVImporter.COLUMN_NAMES[i], getInt(i));
+            }
+        }
         return columns;
     }
 
     /**
-     * The source string which created this CSVFrame.
+     * The csv row of this CSVFrame, rebuilt from the parsed values.
      *
      * @return The joined columns
      */
     public String getCsvRow() {
-        return String.join(";", columnArray);
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < CSVImporter.COLUMN_NAMES.length; i++) {
+            if (i > 0) {
+                stringBuilder.append(';');
+            }
+            if (!isEmpty(i)) {
+                stringBuilder.append(getInt(i));
+            }
+        }
+        return stringBuilder.toString();
     }
 
     /**
@@ -47,7 +131,7 @@ public class CSVFrame {
      * @return Content of Nr.
      */
     public Integer getFrameNumber() {
-        return columns.get("Nr.");
+        return get(CSVImporter.NR);
     }
 
     /**
@@ -55,7 +139,7 @@ public class CSVFrame {
      * @return Content of x
      */
     public Integer getX() {
-        return columns.get("x");
+        return get(CSVImporter.X);
     }
 
     /**
@@ -63,7 +147,7 @@ public class CSVFrame {
      * @return Content of y
      */
     public Integer getY() {
-        return columns.get("y");
+        return get(CSVImporter.Y);
     }
 
     /**
@@ -71,7 +155,7 @@ public class CSVFrame {
      * @return Content of xright
      */
     public Integer getWidth() {
-        return columns.get("xright");
+        return get(CSVImporter.XRIGHT);
     }
 
     /**
@@ -79,7 +163,7 @@ public class CSVFrame {
      * @return Content of ylow
      */
     public Integer getHeight() {
-        return columns.get("ylow");
+        return get(CSVImporter.YLOW);
     }
 
     /**
@@ -87,7 +171,7 @@ public class CSVFrame {
      * @return Content of fob
      */
     public Integer getFurrowingOfBrowe() {
-        return columns.get("fob");
+        return get(CSVImporter.FOB);
     }
 
     /**
@@ -95,7 +179,7 @@ public class CSVFrame {
      * @return Content of lea
      */
     public Integer getLeftEyeAperture() {
-        return columns.get("lea");
+        return get(CSVImporter.LEA);
     }
 
     /**
@@ -103,7 +187,7 @@ public class CSVFrame {
      * @return Content of lea
      */
     public Integer getRightEyeAperture() {
-        return columns.get("rea");
+        return get(CSVImporter.REA);
     }
 
     /**
@@ -111,7 +195,7 @@ public class CSVFrame {
      * @return Content of lbd
      */
     public Integer getLeftBroweDistance() {
-        return columns.get("lbd");
+        return get(CSVImporter.LBD);
     }
 
     /**
@@ -119,7 +203,7 @@ public class CSVFrame {
      * @return Content of rbd
      */
     public Integer getRightBroweDistance() {
-        return columns.get("rbd");
+        return get(CSVImporter.RBD);
     }
 
     /**
@@ -127,7 +211,7 @@ public class CSVFrame {
      * @return Content of hnc
      */
     public Integer getHorizontalNoseCrinkles() {
-        return columns.get("hnc");
+        return get(CSVImporter.HNC);
     }
 
     /**
@@ -135,7 +219,7 @@ public class CSVFrame {
      * @return Content of vnc
      */
     public Integer getVerticalNoseCrinkles() {
-        return columns.get("vnc");
+        return get(CSVImporter.VNC);
     }
 
     /**
@@ -143,7 +227,7 @@ public class CSVFrame {
      * @return Content of lcw
      */
     public Integer getLeftCheekWrinkle() {
-        return columns.get("lcw");
+        return get(CSVImporter.LCW);
     }
 
     /**
@@ -151,7 +235,7 @@ public class CSVFrame {
      * @return Content of rcw
      */
     public Integer getRightCheekWrinkle() {
-        return columns.get("rcw");
+        return get(CSVImporter.RCW);
     }
 
     /**
@@ -159,7 +243,7 @@ public class CSVFrame {
      * @return Content of ma
      */
     public Integer getMouthAperture() {
-        return columns.get("ma");
+        return get(CSVImporter.MA);
     }
 
     /**
@@ -171,7 +255,7 @@ public class CSVFrame {
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("{ ");
-        columns.forEach((k, v) -> stringBuilder.append(k).append(": ").append(v).append(", "));
+        getColumns().forEach((k, v) -> stringBuilder.append(k).append(": ").append(v).append(", "));
         stringBuilder.delete(stringBuilder.length() - 2, stringBuilder.length() - 1);
         stringBuilder.append(" }");
         return stringBuilder.toString();
@@ -1,9 +1,11 @@
 package de.emotreco.csvmodel;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.stream.Stream;
 
 /**
  * Imports a file from the file system into the CSVFrame format.
@@ -11,6 +13,9 @@ import java.util.ArrayList;
 public class CSVImporter {
 
     public static final String[] COLUMN_NAMES = { "Nr", "x", "y", "xright", "ylow", "fob", "lea", "lbd", "rea", "rbd", "hnc", "vnc", "lcw", "rcw", "ma" };
+    // Indices of the columns in COLUMN_NAMES
+    public static final int NR = 0, X = 1, Y = 2, XRIGHT = 3, YLOW = 4, FOB = 5, LEA = 6, LBD = 7, REA = 8, RBD = 9,
+            HNC = 10, VNC = 11, LCW = 12, RCW = 13, MA = 14;
 
     private String filePath;
 
@@ -21,26 +26,83 @@ public class CSVImporter {
     /**
      * Read file from file system. The file has to be in csv format and the column names have to match the COLUMN_NAMES spec.
      *
-     * @return CSVFrame[] - Representing all frames/lines from the csv
+     * @return CSVFrame[] - Representing all frames/lines from the csv, as views on the store of <code>readColumns</code>
      * @throws IOException When the file could not be accessed.
      */
     public CSVFrame[] readFile() throws IOException {
-        ArrayList<String> lines = (ArrayList<String>) Files.readAllLines(Paths.get(filePath));
+        return readColumns().getFrames();
+    }
 
-        // Validate order of columns
-        String headerRowReference = String.join(";", COLUMN_NAMES);
-        if (!lines.get(0).equalsIgnoreCase(headerRowReference)) {
-            throw new RuntimeException("Header row does not match expected format.\nIs: "
-                    + lines.get(0) + "\nShould be: " + headerRowReference);
+    /**
+     * Read file from file system into primitive columns on the heap. The file is memory-mapped and parsed without creating Strings,
+     * so large recordings only cost about 4 bytes per cell.
+     *
+     * @return CSVColumnStore - Holding all frames/lines from the csv except the header
+     * @throws IOException When the file could not be accessed.
+     */
+    public CSVColumnStore readColumns() throws IOException {
+        return new MappedCSVParser(Paths.get(filePath)).parse();
+    }
+
+    /**
+     * Read file from file system into primitive columns outside of the heap, see OffHeapCSVColumnStore.
+     * The store has to be closed to release its memory, e.g. with try-with-resources.
+     *
+     * @return OffHeapCSVColumnStore - Holding all frames/lines from the csv except the header
+     * @throws IOException When the file could not be accessed.
+     */
+    public OffHeapCSVColumnStore readColumnsOffHeap() throws IOException {
+        OffHeapCSVColumnStore store = new OffHeapCSVColumnStore(COLUMN_NAMES.length);
+        try {
+            new MappedCSVParser(Paths.get(filePath)).parse(store::appendRow);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
         }
+    }
 
-        // Create a csv frame for all rows except the header
-        CSVFrame[] csvFrames = new CSVFrame[lines.size() - 1];
-        for (int i = 0; i < lines.size() - 1; i++) {
-            csvFrames[i] = new CSVFrame(lines.get(i + 1));
+    /**
+     * Read file from file system frame by frame. The header is validated once, then every line is parsed when the stream reaches it,
+     * so only the frames which are currently processed are held in memory.
+     * The stream has to be closed to release the file, e.g. with try-with-resources.
+     *
+     * @return Stream of CSVFrames - Representing all frames/lines from the csv in file order
+     * @throws IOException When the file could not be accessed.
+     */
+    public Stream<CSVFrame> streamFile() throws IOException {
+        BufferedReader reader = Files.newBufferedReader(Paths.get(filePath));
+        try {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new RuntimeException("File " + filePath + " is empty.");
+            }
+            validateHeader(header);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
         }
 
-        return csvFrames;
+        return reader.lines().map(CSVFrame::new).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Validate the order of columns.
+     *
+     * @param header the first line of the file
+     */
+    static void validateHeader(String header) {
+        String headerRowReference = String.join(";", COLUMN_NAMES);
+        if (!header.equalsIgnoreCase(headerRowReference)) {
+            throw new RuntimeException("Header row does not match expected format.\nIs: "
+                    + header + "\nShould be: " + headerRowReference);
+        }
     }
 
 }
@@ -0,0 +1,76 @@
+package de.emotreco.csvmodel;
+
+import java.util.Arrays;
+
+/**
+ * Stores the values of csv rows column by column in primitive arrays on the heap. Each column has an int[] for its values
+ * and a bitmap marking the empty cells, which costs about 4 bytes per cell instead of a boxed map entry.
+ */
+public class HeapCSVColumnStore implements CSVColumnStore {
+
+    private final int columnCount;
+    private int rowCount;
+    // values[column][row]
+    private int[][] values;
+    // emptyCells[column][row / 64], a set bit marks an empty cell
+    private long[][] emptyCells;
+
+    /**
+     * Create an empty store.
+     *
+     * @param columnCount amount of columns of every row
+     * @param initialCapacity amount of rows which can be added before the arrays have to grow
+     */
+    public HeapCSVColumnStore(int columnCount, int initialCapacity) {
+        this.columnCount = columnCount;
+        int capacity = Math.max(initialCapacity, 1);
+        values = new int[columnCount][capacity];
+        emptyCells = new long[columnCount][(capacity + 63) >>> 6];
+    }
+
+    /**
+     * Append a row, see MappedCSVParser.RowSink.
+     *
+     * @param rowValues the value of every column, 0 for empty cells
+     * @param rowEmpty true for every column which was left empty
+     */
+    void appendRow(int[] rowValues, boolean[] rowEmpty) {
+        if (rowCount == values[0].length) {
+            int capacity = (int) Math.min(rowCount * 2L, Integer.MAX_VALUE - 8);
+            for (int column = 0; column < columnCount; column++) {
+                values[column] = Arrays.copyOf(values[column], capacity);
+                emptyCells[column] = Arrays.copyOf(emptyCells[column], (capacity + 63) >>> 6);
+            }
+        }
+        int row = rowCount++;
+        for (int column = 0; column < columnCount; column++) {
+            if (rowEmpty[column]) {
+                values[column][row] = 0;
+                emptyCells[column][row >>> 6] |= 1L << row;
+            } else {
+                values[column][row] = rowValues[column];
+                emptyCells[column][row >>> 6] &= ~(1L << row);
+            }
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean isEmpty(int column, int row) {
+        return (emptyCells[column][row >>> 6] & (1L << row)) != 0;
+    }
+
+    @Override
+    public int getInt(int column, int row) {
+        return values[column][row];
+    }
+}
@@ -0,0 +1,184 @@
+package de.emotreco.csvmodel;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Parses a csv file into a CSVColumnStore without creating a String per line or cell.
+ * The file is memory-mapped window by window and its bytes are scanned for separators and line breaks directly,
+ * integers are accumulated from the digits. Only the header row is decoded to validate it against CSVImporter.COLUMN_NAMES.
+ */
+class MappedCSVParser {
+
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    // Rows the heap store starts with, it doubles its capacity whenever it is full
+    private static final int INITIAL_ROWS = 1024;
+
+    private final Path path;
+    private final int columnCount = CSVImporter.COLUMN_NAMES.length;
+
+    // State of the row which is currently parsed
+    private final int[] rowValues = new int[columnCount];
+    private final boolean[] rowEmpty = new boolean[columnCount];
+    private int column;
+    private int cellLength;
+    private long cellValue;
+    private boolean cellNegative;
+    private long lineNumber;
+    // Whether the last finished line was ended by \r, so a following \n only completes the line break
+    private boolean afterCarriageReturn;
+
+    MappedCSVParser(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Receives the parsed rows, e.g. the <code>appendRow</code> method of a store.
+     * The arrays are reused for the next row and must not be kept.
+     */
+    interface RowSink {
+        void appendRow(int[] rowValues, boolean[] rowEmpty);
+    }
+
+    /**
+     * Parse the whole file into the heap.
+     *
+     * @return all rows except the header
+     * @throws IOException When the file could not be accessed.
+     */
+    HeapCSVColumnStore parse() throws IOException {
+        HeapCSVColumnStore store = new HeapCSVColumnStore(columnCount, INITIAL_ROWS);
+        parse(store::appendRow);
+        return store;
+    }
+
+    /**
+     * Parse the whole file row by row, e.g. into an OffHeapCSVColumnStore.
+     *
+     * @param rows receives all rows except the header with the columns of CSVImporter.COLUMN_NAMES
+     * @throws IOException When the file could not be accessed.
+     */
+    void parse(RowSink rows) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(WINDOW_SIZE, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+                int consumed = parseWindow(window, (int) length, lastWindow, rows);
+                if (consumed == 0) {
+                    throw new RuntimeException("Line " + (lineNumber + 1) + " is longer than " + WINDOW_SIZE + " bytes.");
+                }
+                position += consumed;
+            }
+
+            if (lineNumber == 0) {
+                throw new RuntimeException("File " + path + " is empty.");
+            }
+        }
+    }
+
+    /**
+     * Parse all complete lines of a window. A line which is cut by the end of the window is parsed again with the next window.
+     *
+     * @return amount of bytes belonging to complete lines
+     */
+    private int parseWindow(MappedByteBuffer window, int length, boolean lastWindow, RowSink rows) {
+        int lineStart = 0;
+        resetRow();
+        for (int i = 0; i < length; i++) {
+            byte b = window.get(i);
+            if (b == '\n' || b == '\r') {
+                if (b != '\n' || i != lineStart || !afterCarriageReturn) {
+                    finishLine(window, lineStart, i, rows);
+                }
+                afterCarriageReturn = b == '\r';
+                lineStart = i + 1;
+            } else if (lineNumber > 0) {
+                parseByte(b, window, lineStart, i);
+            }
+        }
+
+        if (lastWindow && lineStart < length) {
+            finishLine(window, lineStart, length, rows);
+            afterCarriageReturn = false;
+            lineStart = length;
+        }
+        return lineStart;
+    }
+
+    private void parseByte(byte b, MappedByteBuffer window, int lineStart, int i) {
+        if (b == ';') {
+            finishCell(window, lineStart, i);
+            column++;
+        } else if (b >= '0' && b <= '9') {
+            cellValue = cellValue * 10 + (b - '0');
+            cellLength++;
+            if (cellValue > 1L + Integer.MAX_VALUE) {
+                throw invalidNumber(window, lineStart, i + 1);
+            }
+        } else if ((b == '-' || b == '+') && cellLength == 0) {
+            cellNegative = b == '-';
+            cellLength++;
+        } else {
+            throw invalidNumber(window, lineStart, i + 1);
+        }
+    }
+
+    private void finishCell(MappedByteBuffer window, int lineStart, int end) {
+        if (column < columnCount) {
+            long value = cellNegative ? -cellValue : cellValue;
+            if (cellLength > 0 && (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)) {
+                throw invalidNumber(window, lineStart, end);
+            }
+            rowEmpty[column] = cellLength == 0;
+            rowValues[column] = (int) value;
+        }
+        cellValue = 0;
+        cellLength = 0;
+        cellNegative = false;
+    }
+
+    private void finishLine(MappedByteBuffer window, int lineStart, int end, RowSink rows) {
+        if (lineNumber++ == 0) {
+            CSVImporter.validateHeader(decode(window, lineStart, end));
+            resetRow();
+            return;
+        }
+
+        finishCell(window, lineStart, end);
+        if (column + 1 != columnCount) {
+            throw new RuntimeException("Found a row that does not match expected format.\nRow: "
+                    + decode(window, lineStart, end) + " has " + (column + 1) + ".\nA row should have " + columnCount + " columns. Columns can be empty but have to append separation token anyway (;).");
+        }
+
+        rows.appendRow(rowValues, rowEmpty);
+        resetRow();
+    }
+
+    private void resetRow() {
+        column = 0;
+        cellValue = 0;
+        cellLength = 0;
+        cellNegative = false;
+    }
+
+    private NumberFormatException invalidNumber(MappedByteBuffer window, int lineStart, int end) {
+        return new NumberFormatException("Invalid number in line " + (lineNumber + 1) + " column " + (column + 1)
+                + ": " + decode(window, lineStart, end));
+    }
+
+    private static String decode(MappedByteBuffer window, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = start; i < end; i++) {
+            bytes[i - start] = window.get(i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
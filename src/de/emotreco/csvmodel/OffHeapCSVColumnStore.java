@@ -0,0 +1,178 @@
+package de.emotreco.csvmodel;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A CSVColumnStore keeping its cells outside of the Java heap, in direct buffers of SEGMENT_ROWS rows each.
+ * The heap only holds one small buffer object per segment, so the heap usage and the garbage collection pauses do not
+ * grow with the length of a recording. Growing adds a segment and never copies the rows already stored.
+ *
+ * A segment holds the values of its rows column by column as int, followed by the bitmaps of the empty cells.
+ * <code>close</code> returns the segments to a pool shared by all stores, so the next store reading a file takes them
+ * instead of allocating new memory. The pool keeps at most MAX_POOLED_BYTES, segments beyond that are dropped and
+ * released once the garbage collector collects the buffers.
+ * After closing, the store and all CSVFrame views on it can not be used anymore.
+ * Closing is not thread-safe: no other thread may read the store while it is closed.
+ */
+public class OffHeapCSVColumnStore implements CSVColumnStore, AutoCloseable {
+
+    public static final int SEGMENT_SHIFT = 14;
+    public static final int SEGMENT_ROWS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_ROWS - 1;
+    /** the most memory the pool keeps for later stores, in bytes */
+    public static final long MAX_POOLED_BYTES = 64L << 20;
+
+    /** segments of closed stores by their size in bytes, guarded by itself */
+    private static final Map<Integer, ArrayDeque<ByteBuffer>> POOL = new HashMap<>();
+    private static long pooledBytes;
+
+    private final int columnCount;
+    private final int bitmapOffset;
+    private final int segmentBytes;
+    private ByteBuffer[] segments = new ByteBuffer[0];
+    private int rowCount;
+
+    /**
+     * Create an empty store. Memory is allocated segment by segment while rows are added.
+     *
+     * @param columnCount amount of columns of every row
+     */
+    public OffHeapCSVColumnStore(int columnCount) {
+        this.columnCount = columnCount;
+        bitmapOffset = columnCount * SEGMENT_ROWS * Integer.BYTES;
+        segmentBytes = bitmapOffset + columnCount * (SEGMENT_ROWS >>> 6) * Long.BYTES;
+    }
+
+    /**
+     * Append a row, see MappedCSVParser.RowSink.
+     *
+     * @param rowValues the value of every column, 0 for empty cells
+     * @param rowEmpty true for every column which was left empty
+     */
+    void appendRow(int[] rowValues, boolean[] rowEmpty) {
+        ByteBuffer[] segments = getSegments();
+        if (rowCount == segments.length * SEGMENT_ROWS) {
+            if (segments.length == (Integer.MAX_VALUE >>> SEGMENT_SHIFT)) {
+                throw new IllegalStateException("The store is full with " + rowCount + " rows.");
+            }
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            segments[segments.length - 1] = takeSegment(segmentBytes);
+            this.segments = segments;
+        }
+        int row = rowCount++;
+        ByteBuffer segment = segments[row >>> SEGMENT_SHIFT];
+        int offset = row & SEGMENT_MASK;
+        for (int column = 0; column < columnCount; column++) {
+            int bitmapIndex = bitmapIndex(column, offset);
+            if (rowEmpty[column]) {
+                segment.putInt(valueIndex(column, offset), 0);
+                segment.putLong(bitmapIndex, segment.getLong(bitmapIndex) | 1L << offset);
+            } else {
+                segment.putInt(valueIndex(column, offset), rowValues[column]);
+                segment.putLong(bitmapIndex, segment.getLong(bitmapIndex) & ~(1L << offset));
+            }
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean isEmpty(int column, int row) {
+        int offset = row & SEGMENT_MASK;
+        return (getSegments()[row >>> SEGMENT_SHIFT].getLong(bitmapIndex(column, offset)) & (1L << offset)) != 0;
+    }
+
+    @Override
+    public int getInt(int column, int row) {
+        return getSegments()[row >>> SEGMENT_SHIFT].getInt(valueIndex(column, row & SEGMENT_MASK));
+    }
+
+    private int valueIndex(int column, int offset) {
+        return (column * SEGMENT_ROWS + offset) * Integer.BYTES;
+    }
+
+    private int bitmapIndex(int column, int offset) {
+        return bitmapOffset + (column * (SEGMENT_ROWS >>> 6) + (offset >>> 6)) * Long.BYTES;
+    }
+
+    private ByteBuffer[] getSegments() {
+        ByteBuffer[] segments = this.segments;
+        if (segments == null) {
+            throw new IllegalStateException("The store is already closed.");
+        }
+        return segments;
+    }
+
+    /**
+     * @return the amount of memory allocated outside of the heap in bytes, 0 once the store is closed
+     */
+    public long getOffHeapBytes() {
+        return segments == null ? 0 : (long) segments.length * segmentBytes;
+    }
+
+    public boolean isClosed() {
+        return segments == null;
+    }
+
+    /**
+     * Returns all segments to the pool, see MAX_POOLED_BYTES. Closing a closed store has no effect.
+     */
+    @Override
+    public void close() {
+        ByteBuffer[] segments = this.segments;
+        if (segments == null) {
+            return;
+        }
+        this.segments = null;
+        synchronized (POOL) {
+            ArrayDeque<ByteBuffer> pooled = POOL.computeIfAbsent(segmentBytes, size -> new ArrayDeque<>());
+            for (ByteBuffer segment : segments) {
+                if (pooledBytes + segmentBytes > MAX_POOLED_BYTES) {
+                    break;
+                }
+                pooled.push(segment);
+                pooledBytes += segmentBytes;
+            }
+        }
+    }
+
+    /**
+     * @return the amount of memory kept in the pool for later stores in bytes
+     */
+    public static long getPooledBytes() {
+        synchronized (POOL) {
+            return pooledBytes;
+        }
+    }
+
+    /**
+     * Takes a segment of a closed store from the pool or allocates a new one. A pooled segment still holds the cells of
+     * its previous store, they are overwritten row by row in <code>appendRow</code>.
+     *
+     * @param segmentBytes size of the segment in bytes
+     * @return a direct buffer in native order
+     */
+    private static ByteBuffer takeSegment(int segmentBytes) {
+        synchronized (POOL) {
+            ArrayDeque<ByteBuffer> pooled = POOL.get(segmentBytes);
+            if (pooled != null && !pooled.isEmpty()) {
+                pooledBytes -= segmentBytes;
+                return pooled.pop();
+            }
+        }
+        return ByteBuffer.allocateDirect(segmentBytes).order(ByteOrder.nativeOrder());
+    }
+}
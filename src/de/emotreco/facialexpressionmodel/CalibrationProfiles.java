@@ -0,0 +1,216 @@
+package de.emotreco.facialexpressionmodel;
+
+import de.emotreco.featuremodel.FeatureImporter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Persists the calibration of a FacialExpressionDescriptor per subject and camera, so clips of a known subject
+ * can be classified from the first frame on instead of calibrating with their first TRAINING_FRAME_AMOUNT frames.
+ *
+ * Every profile is a small binary file in a directory, named after subject and camera. It holds the magic number,
+ * the version and the amount of features as int, followed by the feature factor, the average and both minima of every
+ * feature as float. Loaded profiles are kept in a cache which evicts the least recently used profile when it is full.
+ * Descriptors are immutable, so a cached descriptor can be shared by several classifiers. All methods are thread safe,
+ * a profile file is read without holding the lock so loading one profile does not block the others.
+ */
+public class CalibrationProfiles {
+
+    public static final int DEFAULT_CAPACITY = 64;
+    private static final int MAGIC = 0x454D5031; // "EMP1"
+    private static final int VERSION = 1;
+    private static final String FILE_EXTENSION = ".profile";
+    private static final Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final Path directory;
+    private final Map<String, FacialExpressionDescriptor> cache;
+    private long hits, misses;
+    // Counts the saved profiles, a profile read while another one was saved is not cached
+    private long saves;
+
+    /**
+     * Create the profiles of a directory with the default cache capacity.
+     *
+     * @param directory the directory holding the profile files, created when the first profile is saved
+     */
+    public CalibrationProfiles(Path directory) {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create the profiles of a directory.
+     *
+     * @param directory the directory holding the profile files, created when the first profile is saved
+     * @param capacity amount of profiles kept in memory
+     */
+    public CalibrationProfiles(Path directory, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity has to be at least 1, got " + capacity + ".");
+        }
+        this.directory = directory;
+        this.cache = new LinkedHashMap<String, FacialExpressionDescriptor>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FacialExpressionDescriptor> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the calibration of a subject in front of a camera, from the cache or from its profile file.
+     *
+     * @param subject id of the subject, letters, digits, '.', '_' and '-'
+     * @param camera id of the camera, letters, digits, '.', '_' and '-'
+     * @return the descriptor, null if no profile was saved yet
+     * @throws IOException if the profile could not be read or does not match the feature factors of this version
+     */
+    public FacialExpressionDescriptor load(String subject, String camera) throws IOException {
+        String key = key(subject, camera);
+        long savesBeforeRead;
+        synchronized (this) {
+            FacialExpressionDescriptor descriptor = cache.get(key);
+            if (descriptor != null) {
+                hits++;
+                return descriptor;
+            }
+            misses++;
+            savesBeforeRead = saves;
+        }
+
+        FacialExpressionDescriptor descriptor;
+        try {
+            descriptor = read(profileFile(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        synchronized (this) {
+            // Another thread may have loaded the profile meanwhile, or saved a newer one which must not be replaced
+            FacialExpressionDescriptor cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            if (saves == savesBeforeRead) {
+                cache.put(key, descriptor);
+            }
+            return descriptor;
+        }
+    }
+
+    /**
+     * Save the calibration of a subject in front of a camera, replacing an older profile.
+     *
+     * @param subject id of the subject, letters, digits, '.', '_' and '-'
+     * @param camera id of the camera, letters, digits, '.', '_' and '-'
+     * @param descriptor the calibrated descriptor
+     * @throws IOException if the profile could not be written
+     */
+    public synchronized void save(String subject, String camera, FacialExpressionDescriptor descriptor) throws IOException {
+        String key = key(subject, camera);
+        Files.createDirectories(directory);
+        // Write a temporary file first, so a profile is never read while it is only partly written
+        Path temporaryFile = Files.createTempFile(directory, key, ".tmp");
+        try {
+            write(temporaryFile, descriptor);
+            Files.move(temporaryFile, profileFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        saves++;
+        cache.put(key, descriptor);
+    }
+
+    /**
+     * Write the calibration of a descriptor into a profile file.
+     *
+     * @param file the path of the profile file
+     * @param descriptor the calibrated descriptor
+     * @throws IOException if the file could not be written
+     */
+    public static void write(Path file, FacialExpressionDescriptor descriptor) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(FeatureImporter.FEATURE_COLUMN_NAMES.length);
+            for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+                out.writeFloat(FacialExpressionDescriptor.getFeatureFactor(i));
+                out.writeFloat(descriptor.getAverage(i));
+                out.writeFloat(descriptor.getFirstMinimum(i));
+                out.writeFloat(descriptor.getSecondMinimum(i));
+            }
+        }
+    }
+
+    /**
+     * Read a descriptor from a profile file. It is identical to the descriptor that was written.
+     *
+     * @param file the path of the profile file
+     * @return the calibrated descriptor
+     * @throws IOException if the file could not be read, is no profile or was calibrated with other feature factors
+     */
+    public static FacialExpressionDescriptor read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a calibration profile.");
+            }
+            int version = in.readInt();
+            int featureAmount = in.readInt();
+            if (version != VERSION || featureAmount != FeatureImporter.FEATURE_COLUMN_NAMES.length) {
+                throw new IOException(file + " has the unsupported version " + version + " with " + featureAmount + " features.");
+            }
+
+            float[] average = new float[featureAmount];
+            float[] firstMinimum = new float[featureAmount];
+            float[] secondMinimum = new float[featureAmount];
+            for (int i = 0; i < featureAmount; i++) {
+                if (Float.compare(in.readFloat(), FacialExpressionDescriptor.getFeatureFactor(i)) != 0) {
+                    throw new IOException(file + " was calibrated with another factor for feature " + FeatureImporter.FEATURE_COLUMN_NAMES[i] + ".");
+                }
+                average[i] = in.readFloat();
+                firstMinimum[i] = in.readFloat();
+                secondMinimum[i] = in.readFloat();
+            }
+
+            // The minima follow from the averages, stored minima which do not match indicate a damaged file
+            FacialExpressionDescriptor descriptor = new FacialExpressionDescriptor(average);
+            for (int i = 0; i < featureAmount; i++) {
+                if (Float.compare(descriptor.getFirstMinimum(i), firstMinimum[i]) != 0
+                        || Float.compare(descriptor.getSecondMinimum(i), secondMinimum[i]) != 0) {
+                    throw new IOException(file + " has inconsistent minima for feature " + FeatureImporter.FEATURE_COLUMN_NAMES[i] + ".");
+                }
+            }
+            return descriptor;
+        }
+    }
+
+    private String key(String subject, String camera) {
+        if (!ID_PATTERN.matcher(subject).matches() || !ID_PATTERN.matcher(camera).matches()) {
+            throw new IllegalArgumentException("Subject and camera ids may only contain letters, digits, '.', '_' and '-', got "
+                    + subject + " and " + camera + ".");
+        }
+        return subject + "@" + camera;
+    }
+
+    private Path profileFile(String key) {
+        return directory.resolve(key + FILE_EXTENSION);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,139 @@
+package de.emotreco.facialexpressionmodel;
+
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+
+/**
+ * Running statistics of the features of the calibration frames. A frame is added or removed in constant time, so a
+ * descriptor can be recalibrated on long streams without walking over the frames again.
+ * The mean and variance of the measured values are maintained with Welford's method, missing features are counted
+ * separately. Statistics of different partitions of the frames can be merged, e.g. for a parallel calibration.
+ */
+public class CalibrationStatistics {
+
+    private static final int FEATURE_AMOUNT = FeatureImporter.FEATURE_COLUMN_NAMES.length;
+
+    private long frameCount;
+    // Per feature: amount of frames the feature was measured in, mean and sum of squared deviations of these values
+    private final long[] measuredCount = new long[FEATURE_AMOUNT];
+    private final double[] mean = new double[FEATURE_AMOUNT];
+    private final double[] squaredDeviations = new double[FEATURE_AMOUNT];
+
+    /**
+     * Add a frame to the statistics.
+     *
+     * @param frame the frame to add
+     */
+    public void add(FeatureFrame frame) {
+        frameCount++;
+        for (int i = 0; i < FEATURE_AMOUNT; i++) {
+            if (frame.hasFeature(i)) {
+                double x = frame.getFeature(i);
+                measuredCount[i]++;
+                double delta = x - mean[i];
+                mean[i] += delta / measuredCount[i];
+                squaredDeviations[i] += delta * (x - mean[i]);
+            }
+        }
+    }
+
+    /**
+     * Remove a frame which was added before, e.g. when it leaves a sliding window.
+     *
+     * @param frame the frame to remove
+     */
+    public void remove(FeatureFrame frame) {
+        if (frameCount == 0) {
+            throw new IllegalStateException("Can not remove a frame from empty statistics.");
+        }
+        frameCount--;
+        for (int i = 0; i < FEATURE_AMOUNT; i++) {
+            if (frame.hasFeature(i)) {
+                double x = frame.getFeature(i);
+                measuredCount[i]--;
+                if (measuredCount[i] == 0) {
+                    mean[i] = 0;
+                    squaredDeviations[i] = 0;
+                } else {
+                    double delta = x - mean[i];
+                    mean[i] -= delta / measuredCount[i];
+                    squaredDeviations[i] = Math.max(0, squaredDeviations[i] - delta * (x - mean[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Add all frames of other statistics to these, see Chan et al. for combining the variances.
+     *
+     * @param other the statistics of another partition of frames, stays unchanged
+     */
+    public void merge(CalibrationStatistics other) {
+        frameCount += other.frameCount;
+        for (int i = 0; i < FEATURE_AMOUNT; i++) {
+            long count = measuredCount[i] + other.measuredCount[i];
+            if (other.measuredCount[i] == 0) {
+                continue;
+            }
+            double delta = other.mean[i] - mean[i];
+            mean[i] += delta * other.measuredCount[i] / count;
+            squaredDeviations[i] += other.squaredDeviations[i]
+                    + delta * delta * ((double) measuredCount[i] * other.measuredCount[i] / count);
+            measuredCount[i] = count;
+        }
+    }
+
+    /**
+     * Create a descriptor for the current state. Later changes of the statistics do not affect the descriptor.
+     *
+     * @return the descriptor calibrated with all frames added so far
+     */
+    public FacialExpressionDescriptor toDescriptor() {
+        if (frameCount == 0) {
+            throw new IllegalStateException("At least one frame is needed to build a descriptor.");
+        }
+        float[] average = new float[FEATURE_AMOUNT];
+        for (int i = 0; i < FEATURE_AMOUNT; i++) {
+            average[i] = (float) getAverage(i);
+        }
+        return new FacialExpressionDescriptor(average);
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @param i index of the feature
+     * @return amount of frames the feature was measured in
+     */
+    public long getMeasuredCount(int i) {
+        return measuredCount[i];
+    }
+
+    /**
+     * The average the descriptor is calibrated with. Like in FacialExpressionDescriptor a missing feature counts as 0.
+     *
+     * @param i index of the feature
+     * @return sum of the measured values divided by the amount of frames
+     */
+    public double getAverage(int i) {
+        return frameCount == 0 ? 0 : mean[i] * measuredCount[i] / frameCount;
+    }
+
+    /**
+     * @param i index of the feature
+     * @return mean of the measured values only, NaN if the feature was never measured
+     */
+    public double getMean(int i) {
+        return measuredCount[i] == 0 ? Double.NaN : mean[i];
+    }
+
+    /**
+     * @param i index of the feature
+     * @return population variance of the measured values, NaN if the feature was never measured
+     */
+    public double getVariance(int i) {
+        return measuredCount[i] == 0 ? Double.NaN : squaredDeviations[i] / measuredCount[i];
+    }
+}
@@ -0,0 +1,65 @@
+package de.emotreco.facialexpressionmodel;
+
+import de.emotreco.featuremodel.FeatureImporter;
+
+import java.util.LinkedHashMap;
+
+import static de.emotreco.facialexpressionmodel.Emotions.*;
+
+/**
+ * The rules of Emotions.java compiled into a lookup table. For every feature and intensity the table holds a bitmask
+ * of the matching emotions, bit i standing for emotion i in the order [NEUTRAL, SADNESS, FEAR, JOY, DISGUST].
+ * The table is built once when the class is loaded, so matching a rule is a single array access.
+ */
+public final class EmotionRules {
+
+    /**
+     * Deny attempts to instantiate this class. It is a lookup table only.
+     */
+    private EmotionRules() {}
+
+    private static final LinkedHashMap<?, ?>[] EMOTIONS = { NEUTRAL, SADNESS, FEAR, JOY, DISGUST };
+
+    public static final int EMOTION_AMOUNT = EMOTIONS.length;
+
+    // MATCHING_MASKS[feature][intensity]
+    private static final long[][] MATCHING_MASKS = compile();
+
+    private static long[][] compile() {
+        long[][] masks = new long[FeatureImporter.FEATURE_COLUMN_NAMES.length][FacialExpressionDescriptor.INTENSITIES.length];
+        for (int feature = 0; feature < masks.length; feature++) {
+            String expressionKey = getExpressionKey(feature);
+            for (int intensity = 0; intensity < masks[feature].length; intensity++) {
+                for (int emotion = 0; emotion < EMOTIONS.length; emotion++) {
+                    for (String possibleValue : ((String) EMOTIONS[emotion].get(expressionKey)).split(",")) {
+                        if (possibleValue.equalsIgnoreCase(FacialExpressionDescriptor.INTENSITIES[intensity])) {
+                            masks[feature][intensity] |= 1L << emotion;
+                        }
+                    }
+                }
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Get the emotions which would match a feature with a certain intensity.
+     *
+     * @param feature index of the feature in FeatureImporter.FEATURE_COLUMN_NAMES
+     * @param intensity one of FacialExpressionDescriptor.LOW, MEDIUM or HIGH
+     * @return for example 0b01000 for JOY
+     */
+    public static long getMatchingMask(int feature, int intensity) {
+        return MATCHING_MASKS[feature][intensity];
+    }
+
+    /**
+     * Get the name of the expression of a feature, used as key in Emotions.java.
+     *
+     * @param feature index of the feature in FeatureImporter.FEATURE_COLUMN_NAMES
+     * @return for example "Stirnfalten"
+     */
+    static String getExpressionKey(int feature) {
+        return FacialExpressions.EXPRESSIONS.get(FeatureImporter.FEATURE_COLUMN_NAMES[feature]);
+    }
+}
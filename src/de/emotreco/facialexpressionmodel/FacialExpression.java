@@ -1,31 +1,28 @@
 package de.emotreco.facialexpressionmodel;
 
-import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
 import java.util.List;
 
-import static de.emotreco.facialexpressionmodel.Emotions.*;
-
 /**
  * A class representing the discrete values of an facial expression. An expression (<code>expressionKey</code>) can be "Stirnfalten"
  * while its intensity (<code>value</code>) could be "high". This association is made with a certain confidence(<code>confidence</code>).
  */
 public class FacialExpression implements Comparable<FacialExpression> {
 
-    private String expressionKey, value;
+    private int feature, intensity;
     private float confidence;
 
     /**
-     * See keys from Emotions.java. Value kann be *one* of low, medium or high.
+     * Create the expression of a feature with one of low, medium or high.
      * Paste in the value resulting from the winner takes all principle.
      *
-     * @param expressionKey e.g. "Stirnfalten"
-     * @param value one of low, medium or high
+     * @param feature index of the feature in FeatureImporter.FEATURE_COLUMN_NAMES, e.g. 0 for "Stirnfalten"
+     * @param intensity one of FacialExpressionDescriptor.LOW, MEDIUM or HIGH
      * @param confidence the confidence of this expression within the frame
      */
-    FacialExpression(String expressionKey, String value, float confidence) {
-        this.expressionKey = expressionKey;
-        this.value = value;
+    FacialExpression(int feature, int intensity, float confidence) {
+        this.feature = feature;
+        this.intensity = intensity;
         this.confidence = confidence;
     }
 
@@ -35,7 +32,7 @@ public class FacialExpression implements Comparable<FacialExpression> {
      * @return for example "Stirnfalten"
      */
     public String getExpressionKey() {
-        return expressionKey;
+        return EmotionRules.getExpressionKey(feature);
     }
 
     /**
@@ -44,7 +41,7 @@ public class FacialExpression implements Comparable<FacialExpression> {
      * @return for example "high"
      */
     public String getValue() {
-        return value;
+        return FacialExpressionDescriptor.INTENSITIES[intensity];
     }
 
     /**
@@ -55,16 +52,21 @@ public class FacialExpression implements Comparable<FacialExpression> {
      * @return for example [0, 0, 0, 1, 0]
      */
     public List<Integer> getMatchingBinaries() {
-        LinkedHashMap[] emotions = new LinkedHashMap[] { NEUTRAL, SADNESS, FEAR, JOY, DISGUST };
-        Integer[] matchingEmotions = new Integer[emotions.length];
-        Arrays.fill(matchingEmotions, 0);
-        for (int i = 0; i < emotions.length; i++) {
-            String[] possibleValues = ((String) emotions[i].get(expressionKey)).split(",");
-            if (Arrays.stream(possibleValues).anyMatch(pV -> pV.equalsIgnoreCase(value))) {
-                matchingEmotions[i] = 1;
-            }
+        long mask = getMatchingMask();
+        List<Integer> matchingEmotions = new ArrayList<>(EmotionRules.EMOTION_AMOUNT);
+        for (int i = 0; i < EmotionRules.EMOTION_AMOUNT; i++) {
+            matchingEmotions.add((mask & (1L << i)) != 0 ? 1 : 0);
         }
-        return Arrays.asList(matchingEmotions);
+        return matchingEmotions;
+    }
+
+    /**
+     * Get a bitmask representing the emotions which would match expressionKey and value. Independant from confidence.
+     *
+     * @return for example 0b01000, bit i stands for the emotion at position i of getMatchingBinaries
+     */
+    public long getMatchingMask() {
+        return EmotionRules.getMatchingMask(feature, intensity);
     }
 
     public float getConfidence() {
@@ -1,11 +1,9 @@
 package de.emotreco.facialexpressionmodel;
 
+import de.emotreco.featuremodel.FeatureColumns;
 import de.emotreco.featuremodel.FeatureFrame;
 import de.emotreco.featuremodel.FeatureImporter;
 
-import java.util.ArrayList;
-import java.util.Collections;
-
 
 /**
  * This is a class to interprete the pixel values from a CSVFrame object into FacialExpression objects (see the .java files).
@@ -13,25 +11,38 @@ import java.util.Collections;
 public class FacialExpressionDescriptor {
 
     public static final int TRAINING_FRAME_AMOUNT = 35;
+    // Indices of the intensities in the order they are tried by describeFrame
+    public static final int LOW = 0, MEDIUM = 1, HIGH = 2;
+    public static final String[] INTENSITIES = { "low", "medium", "high" };
     private static final float[] featureFactor = new float[]{1.9f, 1f, 2f, 2f, 3f, 1.5f, 4f};
-    private float[] average, firstMinimum, secondMinimum;
+    private final float[] average, firstMinimum, secondMinimum;
+    // Factors of the membership functions, derived from the average and the minima
+    private final float[] lowFactor, mediumFactor, highFactor;
 
     /**
      * Create a descriptor containing the definitions for when an expression is categorised as one of low, medium or high.
      *
+     * For a calibration with another amount of frames or one that follows a stream see CalibrationStatistics.
+     *
      * @param featureFrames The first known frames from the csv file. For the WBS task this means the first 35 frames. Others are randomly.
      */
     public FacialExpressionDescriptor(FeatureFrame[] featureFrames) {
+        if (featureFrames.length < TRAINING_FRAME_AMOUNT) {
+            throw new IllegalArgumentException("Only " + featureFrames.length + " frames given, at least "
+                    + TRAINING_FRAME_AMOUNT + " frames are needed to build a descriptor.");
+        }
         average = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
         firstMinimum = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
         secondMinimum = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        lowFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        mediumFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        highFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
 
         // Sum up all the values
         for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
             for (int y = 0; y < TRAINING_FRAME_AMOUNT; y++) {
-                Float featureValue = featureFrames[y].getFeatures()[i];
-                if (featureValue != null) {
-                    average[i] += featureValue;
+                if (featureFrames[y].hasFeature(i)) {
+                    average[i] += featureFrames[y].getFeature(i);
                 }
             }
         }
@@ -39,8 +50,61 @@ public class FacialExpressionDescriptor {
         // And calculate the average and the minima
         for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
             average[i] = average[i] / TRAINING_FRAME_AMOUNT;
+        }
+        calculateMinima();
+    }
+
+    /**
+     * Create a descriptor from the first frames of a FrameStore or CSVFeatureView, identical to a descriptor of the same FeatureFrames.
+     *
+     * @param store the frames of a session, at least TRAINING_FRAME_AMOUNT
+     */
+    public FacialExpressionDescriptor(FeatureColumns store) {
+        if (store.getFrameCount() < TRAINING_FRAME_AMOUNT) {
+            throw new IllegalArgumentException("Only " + store.getFrameCount() + " frames given, at least "
+                    + TRAINING_FRAME_AMOUNT + " frames are needed to build a descriptor.");
+        }
+        average = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        firstMinimum = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        secondMinimum = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        lowFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        mediumFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        highFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+
+        // Sum up all the values in the same order as for FeatureFrames
+        for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+            for (int y = 0; y < TRAINING_FRAME_AMOUNT; y++) {
+                if (store.hasFeature(i, y)) {
+                    average[i] += store.getFeature(i, y);
+                }
+            }
+            average[i] = average[i] / TRAINING_FRAME_AMOUNT;
+        }
+        calculateMinima();
+    }
+
+    /**
+     * Create a descriptor from already known feature averages, e.g. maintained over a sliding window of frames.
+     *
+     * @param average the average of every feature in the order of FeatureImporter.FEATURE_COLUMN_NAMES
+     */
+    public FacialExpressionDescriptor(float[] average) {
+        this.average = average.clone();
+        firstMinimum = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        secondMinimum = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        lowFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        mediumFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        highFactor = new float[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        calculateMinima();
+    }
+
+    private void calculateMinima() {
+        for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
             firstMinimum[i] = average[i] - average[i] / (2f * featureFactor[i]);
             secondMinimum[i] = average[i] + average[i] / (2f * featureFactor[i]);
+            lowFactor[i] = - (1 / (firstMinimum[i] * firstMinimum[i] * 2));
+            mediumFactor[i] = featureFactor[i] / average[i];
+            highFactor[i] = 0.5f / secondMinimum[i];
         }
     }
 
@@ -51,21 +115,14 @@ public class FacialExpressionDescriptor {
      * @return An array of the winning intensities for the different expressions
      */
     public FacialExpression[] describeFrame(FeatureFrame frame) {
-        FacialExpression[] winners = new FacialExpression[frame.getFeatures().length];
-        Float[] frameFeatures = frame.getFeatures();
-        for (int i = 0; i < frameFeatures.length; i++) {
-            if (frameFeatures[i] != null) {
-                String key = FacialExpressions.EXPRESSIONS.get(FeatureImporter.FEATURE_COLUMN_NAMES[i]);
-
-                // calculate all values and sort
-                ArrayList<FacialExpression> currentExpressions = new ArrayList<>();
-                currentExpressions.add(calculateLow(key, i, frameFeatures[i]));
-                currentExpressions.add(calculateMedium(key, i, frameFeatures[i]));
-                currentExpressions.add(calculateHigh(key, i, frameFeatures[i]));
-                Collections.sort(currentExpressions);
+        FacialExpression[] winners = new FacialExpression[FeatureImporter.FEATURE_COLUMN_NAMES.length];
+        for (int i = 0; i < winners.length; i++) {
+            if (frame.hasFeature(i)) {
+                float x = frame.getFeature(i);
 
                 // get the most confident facial expression, winner takes all
-                winners[i] = currentExpressions.get(0);
+                int intensity = describeFeature(i, x);
+                winners[i] = new FacialExpression(i, intensity, calculateConfidence(intensity, i, x));
             }
         }
 
@@ -73,52 +130,106 @@ public class FacialExpressionDescriptor {
     }
 
     /**
-     * Calculate the confidence for low.
+     * Primitive counterpart of describeFrame for a single feature. Does not create any objects.
      *
-     * @param key key of the facial expression e.g. "Stirnfalten"
      * @param i index of the feature
      * @param x the measured pixel value
-     * @return A facial expression which could be the winner
+     * @return the winning intensity, one of LOW, MEDIUM or HIGH. Ties are won by the lower intensity like in describeFrame
      */
-    private FacialExpression calculateLow(String key, int i, float x) {
-        return new FacialExpression(
-                key,
-                "low",
-                - (1 / (firstMinimum[i] * firstMinimum[i] * 2)) * x * x + 1
-                // (0.5f / (firstMinimum[i] - average[i])) * x + 1f
-        );
+    public int describeFeature(int i, float x) {
+        int winner = LOW;
+        float winnerConfidence = calculateConfidence(LOW, i, x);
+        for (int intensity = MEDIUM; intensity <= HIGH; intensity++) {
+            float confidence = calculateConfidence(intensity, i, x);
+            // Same ordering as FacialExpression.compareTo
+            if (Float.compare(confidence, winnerConfidence) > 0) {
+                winner = intensity;
+                winnerConfidence = confidence;
+            }
+        }
+        return winner;
     }
 
     /**
-     * Calculate the confidence for medium.
+     * Batch counterpart of describeFeature for one feature of many frames, e.g. a column of a columnar block of features.
+     * All three membership functions and the winner are calculated in one tight loop over primitive arrays,
+     * with the factors of the feature loaded once per block instead of once per value.
+     * The confidences and winners are identical to calculateConfidence and describeFeature.
+     * Values of frames where the feature is missing are evaluated as well, their results have to be ignored by the caller.
      *
-     * @param key key of the facial expression e.g. "Stirnfalten"
      * @param i index of the feature
-     * @param x the measured pixel value
-     * @return A facial expression which could be the winner
+     * @param x the measured pixel values of the frames
+     * @param offset index of the first frame in x
+     * @param count amount of frames, at most the capacity of the block
+     * @param block receives the confidences of every intensity and the winning intensity of every frame
      */
-    private FacialExpression calculateMedium(String key, int i, float x) {
-        return new FacialExpression(
-                key,
-                "medium",
-                -((featureFactor[i] / average[i]) * Math.abs(x - average[i])) + 1f
-        );
+    public void describeFeatures(int i, float[] x, int offset, int count, MembershipBlock block) {
+        block.setCount(count);
+        float[] low = block.low, medium = block.medium, high = block.high, confidence = block.confidence;
+        int[] intensity = block.intensity;
+        float lowFactor = this.lowFactor[i], mediumFactor = this.mediumFactor[i], highFactor = this.highFactor[i], average = this.average[i];
+
+        for (int frame = 0; frame < count; frame++) {
+            float value = x[offset + frame];
+            float lowConfidence = lowFactor * value * value + 1;
+            float mediumConfidence = -(mediumFactor * Math.abs(value - average)) + 1f;
+            float highConfidence = Math.min(highFactor * value, 1);
+            low[frame] = lowConfidence;
+            medium[frame] = mediumConfidence;
+            high[frame] = highConfidence;
+
+            // Winner takes all with the ordering of describeFeature, ties are won by the lower intensity
+            int winner = LOW;
+            float winnerConfidence = lowConfidence;
+            if (Float.compare(mediumConfidence, winnerConfidence) > 0) {
+                winner = MEDIUM;
+                winnerConfidence = mediumConfidence;
+            }
+            if (Float.compare(highConfidence, winnerConfidence) > 0) {
+                winner = HIGH;
+                winnerConfidence = highConfidence;
+            }
+            intensity[frame] = winner;
+            confidence[frame] = winnerConfidence;
+        }
+    }
+
+    float getAverage(int i) {
+        return average[i];
+    }
+
+    float getFirstMinimum(int i) {
+        return firstMinimum[i];
+    }
+
+    float getSecondMinimum(int i) {
+        return secondMinimum[i];
+    }
+
+    static float getFeatureFactor(int i) {
+        return featureFactor[i];
     }
 
     /**
-     * Calculate the confidence for high.
+     * Calculate the confidence of an intensity.
      *
-     * @param key key of the facial expression e.g. "Stirnfalten"
+     * @param intensity one of LOW, MEDIUM or HIGH
      * @param i index of the feature
      * @param x the measured pixel value
-     * @return A facial expression which could be the winner
+     * @return the confidence the FacialExpression for this intensity would have
      */
-    private FacialExpression calculateHigh(String key, int i, float x) {
-        return new FacialExpression(
-                key,
-                "high",
-                Math.min((0.5f / secondMinimum[i]) * x, 1)
-        );
+    public float calculateConfidence(int intensity, int i, float x) {
+        switch (intensity) {
+            case LOW:
+                return lowFactor[i] * x * x + 1;
+                // (0.5f / (firstMinimum[i] - average[i])) * x + 1f
+            case MEDIUM:
+                return -(mediumFactor[i] * Math.abs(x - average[i])) + 1f;
+            case HIGH:
+                return Math.min(highFactor[i] * x, 1);
+            default:
+                throw new IllegalArgumentException("Unknown intensity " + intensity);
+        }
     }
 
 }
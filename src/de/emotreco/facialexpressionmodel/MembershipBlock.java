@@ -0,0 +1,87 @@
+package de.emotreco.facialexpressionmodel;
+
+/**
+ * Reusable result of FacialExpressionDescriptor.describeFeatures for one feature of a block of frames.
+ * Holds the confidences of all three intensities and the winning intensity per frame in primitive arrays,
+ * so describing thousands of frames does not create a FacialExpression per frame and intensity.
+ */
+public class MembershipBlock {
+
+    final float[] low, medium, high, confidence;
+    final int[] intensity;
+    private int count;
+
+    /**
+     * Create a block.
+     *
+     * @param capacity the maximal amount of frames described at once
+     */
+    public MembershipBlock(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity has to be at least 1, got " + capacity + ".");
+        }
+        low = new float[capacity];
+        medium = new float[capacity];
+        high = new float[capacity];
+        confidence = new float[capacity];
+        intensity = new int[capacity];
+    }
+
+    void setCount(int count) {
+        if (count < 0 || count > low.length) {
+            throw new IllegalArgumentException("Can not describe " + count + " frames, the capacity is " + low.length + ".");
+        }
+        this.count = count;
+    }
+
+    /**
+     * @return the amount of frames described by the last call of describeFeatures
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return low.length;
+    }
+
+    /**
+     * Get the winning intensity of a frame.
+     *
+     * @param frame index of the frame within the block
+     * @return one of FacialExpressionDescriptor.LOW, MEDIUM or HIGH, the same as describeFeature
+     */
+    public int getIntensity(int frame) {
+        return intensity[frame];
+    }
+
+    /**
+     * Get the confidence of the winning intensity of a frame.
+     *
+     * @param frame index of the frame within the block
+     * @return the confidence the winning FacialExpression would have
+     */
+    public float getConfidence(int frame) {
+        return confidence[frame];
+    }
+
+    /**
+     * Get the confidence of any intensity of a frame.
+     *
+     * @param intensity one of FacialExpressionDescriptor.LOW, MEDIUM or HIGH
+     * @param frame index of the frame within the block
+     * @return the same as FacialExpressionDescriptor.calculateConfidence
+     */
+    public float getConfidence(int intensity, int frame) {
+        switch (intensity) {
+            case FacialExpressionDescriptor.LOW:
+                return low[frame];
+            case FacialExpressionDescriptor.MEDIUM:
+                return medium[frame];
+            case FacialExpressionDescriptor.HIGH:
+                return high[frame];
+            default:
+                throw new IllegalArgumentException("Unknown intensity " + intensity);
+        }
+    }
+}
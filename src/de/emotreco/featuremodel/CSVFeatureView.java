@@ -0,0 +1,65 @@
+package de.emotreco.featuremodel;
+
+import de.emotreco.csvmodel.CSVColumnStore;
+import de.emotreco.csvmodel.CSVImporter;
+
+/**
+ * Derives the features of the rows of a CSVColumnStore whenever they are read, without copying the columns.
+ * This allows classifying the rows of an OffHeapCSVColumnStore directly, the heap only holds this view.
+ * The features are identical to the ones of a FeatureFrame of the same row.
+ */
+public class CSVFeatureView implements FeatureColumns {
+
+    private final CSVColumnStore columns;
+
+    /**
+     * Create a view on all rows of a store. Every row needs a face size to normalize its features.
+     *
+     * @param columns the parsed rows with the columns of CSVImporter.COLUMN_NAMES
+     */
+    public CSVFeatureView(CSVColumnStore columns) {
+        for (int row = 0; row < columns.getRowCount(); row++) {
+            if (columns.isEmpty(CSVImporter.XRIGHT, row) || columns.isEmpty(CSVImporter.YLOW, row)) {
+                throw new RuntimeException("Found a frame without a face size, its features can not be normalized: frame " + (row + 1));
+            }
+        }
+        this.columns = columns;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return columns.getRowCount();
+    }
+
+    @Override
+    public boolean hasFeature(int feature, int frame) {
+        for (int column : FeatureImporter.SOURCE_COLUMNS[feature]) {
+            if (!columns.isEmpty(column, frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public float getFeature(int feature, int frame) {
+        // Normalize the values relatively to the face size in the same order of operations as FeatureFrame
+        float faceFactor = columns.getInt(CSVImporter.XRIGHT, frame) * columns.getInt(CSVImporter.YLOW, frame) / 10_000f;
+        float value = 0f;
+        int countedValues = 0;
+        for (int column : FeatureImporter.SOURCE_COLUMNS[feature]) {
+            if (!columns.isEmpty(column, frame)) {
+                countedValues++;
+                value += (float) columns.getInt(column, frame) / faceFactor;
+            }
+        }
+        return countedValues > 0 ? value / countedValues : Float.NaN;
+    }
+
+    /**
+     * @return the store this view reads from
+     */
+    public CSVColumnStore getColumns() {
+        return columns;
+    }
+}
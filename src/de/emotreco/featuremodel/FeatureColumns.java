@@ -0,0 +1,28 @@
+package de.emotreco.featuremodel;
+
+/**
+ * Read access to the normalized features of the frames of a session, addressed by the index of the frame.
+ * The features are identical to the ones of a FeatureFrame of the same csv row, see FrameStore and CSVFeatureView.
+ */
+public interface FeatureColumns {
+
+    int getFrameCount();
+
+    /**
+     * Check whether a feature was measured in a frame, see FeatureFrame.hasFeature.
+     *
+     * @param feature index of the feature in FeatureImporter.FEATURE_COLUMN_NAMES
+     * @param frame index of the frame
+     * @return false if the feature is missing
+     */
+    boolean hasFeature(int feature, int frame);
+
+    /**
+     * Get a normalized feature value, see FeatureFrame.getFeature. Check hasFeature first.
+     *
+     * @param feature index of the feature in FeatureImporter.FEATURE_COLUMN_NAMES
+     * @param frame index of the frame
+     * @return the normalized feature value, NaN if not measured
+     */
+    float getFeature(int feature, int frame);
+}
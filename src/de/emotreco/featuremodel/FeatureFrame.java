@@ -1,17 +1,24 @@
 package de.emotreco.featuremodel;
 
 import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
 
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 
+import static de.emotreco.featuremodel.FeatureImporter.FEATURE_COLUMN_NAMES;
+
 /**
  * A class to filter, normalize and merge the columns of a CSVFrame.
  * It is representing an abstract boundary between FacialExpression and CSVFrame.
+ * The features are kept in a float[] in the order of FeatureImporter.FEATURE_COLUMN_NAMES.
  */
 public class FeatureFrame {
 
-    private HashMap<String, Float> features = new LinkedHashMap<>();
+    // Feature values by index, NaN if the feature was not measured
+    private final float[] features = new float[FEATURE_COLUMN_NAMES.length];
+    // Bit i is set if feature i was measured
+    private int measuredFeatures;
 
     /**
      * Create a featuremodel element from a csvmodel element.
@@ -19,109 +26,137 @@ public class FeatureFrame {
      * @param csvFrame source CSVFrame
      */
     FeatureFrame(CSVFrame csvFrame) {
+        if (csvFrame.isEmpty(CSVImporter.XRIGHT) || csvFrame.isEmpty(CSVImporter.YLOW)) {
+            throw new RuntimeException("Found a frame without a face size, its features can not be normalized: " + csvFrame);
+        }
         // Normalize all the values relatively to the face size
-        float faceFactor = csvFrame.getWidth() * csvFrame.getHeight() / 10_000f;
-
-        // Set (and merge some) feature values. Be aware that values can be null
-        putFeature("fob", faceFactor, csvFrame.getFurrowingOfBrowe());
-        putFeature("ea", faceFactor, csvFrame.getLeftEyeAperture(), csvFrame.getRightEyeAperture());
-        putFeature("bd", faceFactor, csvFrame.getLeftBroweDistance(), csvFrame.getRightBroweDistance());
-        putFeature("hnc", faceFactor, csvFrame.getHorizontalNoseCrinkles());
-        putFeature("vnc", faceFactor, csvFrame.getVerticalNoseCrinkles());
-        putFeature("cw", faceFactor, csvFrame.getLeftCheekWrinkle(), csvFrame.getRightCheekWrinkle());
-        putFeature("ma", faceFactor, csvFrame.getMouthAperture());
+        float faceFactor = csvFrame.getInt(CSVImporter.XRIGHT) * csvFrame.getInt(CSVImporter.YLOW) / 10_000f;
+
+        // Set (and merge some) feature values. Be aware that values can be missing
+        for (int feature = 0; feature < FEATURE_COLUMN_NAMES.length; feature++) {
+            putFeature(feature, faceFactor, csvFrame, FeatureImporter.SOURCE_COLUMNS[feature]);
+        }
     }
 
-    private void putFeature(String key, float faceFactor, Integer... csvValues) {
-        Float value = null;
+    private void putFeature(int feature, float faceFactor, CSVFrame csvFrame, int[] columns) {
+        float value = 0f;
         int countedValues = 0;
 
-        for (Integer csvValue : csvValues) {
-            if (csvValue != null) {
-                if (value == null) value = 0f;
+        for (int column : columns) {
+            if (!csvFrame.isEmpty(column)) {
                 countedValues++;
-                value += (float) csvValue / faceFactor;
+                value += (float) csvFrame.getInt(column) / faceFactor;
             }
         }
 
         if (countedValues > 0) {
-            value /= countedValues;
+            features[feature] = value / countedValues;
+            measuredFeatures |= 1 << feature;
+        } else {
+            features[feature] = Float.NaN;
         }
-
-        features.put(key, value);
     }
 
     /**
      * Generate a list of all feature values in consistent order.
      *
-     * @return Array of boxed float feature values
+     * @return Array of boxed float feature values, null if not measured
      */
     public Float[] getFeatures() {
-        return features.values().toArray(new Float[0]);
+        Float[] boxedFeatures = new Float[features.length];
+        for (int i = 0; i < features.length; i++) {
+            boxedFeatures[i] = hasFeature(i) ? features[i] : null;
+        }
+        return boxedFeatures;
+    }
+
+    /**
+     * Check whether a feature was measured in this frame.
+     *
+     * @param index index of the feature in FeatureImporter.FEATURE_COLUMN_NAMES
+     * @return false if the feature is missing
+     */
+    public boolean hasFeature(int index) {
+        return (measuredFeatures & (1 << index)) != 0;
+    }
+
+    /**
+     * Get a feature value without boxing it into an array. Check hasFeature first.
+     *
+     * @param index index of the feature in FeatureImporter.FEATURE_COLUMN_NAMES
+     * @return the normalized feature value, NaN if not measured
+     */
+    public float getFeature(int index) {
+        return features[index];
     }
 
     /**
      * Return all the features
-     * @return All contents of the map
+     * @return A new map of all features in consistent order, null if not measured
      */
     public HashMap<String, Float> getFeatureMap() {
-        return features;
+        HashMap<String, Float> featureMap = new LinkedHashMap<>();
+        Float[] boxedFeatures = getFeatures();
+        for (int i = 0; i < boxedFeatures.length; i++) {
+            featureMap.put(FEATURE_COLUMN_NAMES[i], boxedFeatures[i]);
+        }
+        return featureMap;
     }
 
     /**
      * Get the normalized value for measured forehead wrinkles via the furrowing of the browe
-     * @return Content of fob
+     * @return Content of fob, NaN if not measured
      */
     public float getFurrowingOfBrowe() {
-        return features.get("fob");
+        return features[FeatureImporter.FOB];
     }
 
     /**
      * Get the normalized value for measured eye size
-     * @return Content of ea
+     * @return Content of ea, NaN if not measured
      */
     public float getEyeAperture() {
-        return features.get("ea");
+        return features[FeatureImporter.EA];
     }
 
     /**
      * Get the normalized value for measured brow distance
-     * @return Content of bd
+     * @return Content of bd, NaN if not measured
      */
     public float getBroweDistance() {
-        return features.get("bd");
+        return features[FeatureImporter.BD];
     }
 
     /**
      * Get the normalized value for measured horizontal nose crinkles
-     * @return Content of hnc
+     * @return Content of hnc, NaN if not measured
      */
     public float getHorizontalNoseCrinkles() {
-        return features.get("hnc");
+        return features[FeatureImporter.HNC];
     }
 
     /**
      * Get the normalized value for vertical nose crinkles
-     * @return Content of vnc
+     * @return Content of vnc, NaN if not measured
      */
     public float getVerticalNoseCrinkles() {
-        return features.get("vnc");
+        return features[FeatureImporter.VNC];
     }
 
     /**
      * Get the normalized value for measured cheek wrinkle
-     * @return Content of cw
+     * @return Content of cw, NaN if not measured
      */
     public float getCheekWrinkle() {
-        return features.get("cw");
+        return features[FeatureImporter.CW];
     }
 
     /**
      * Get the normalized value for measured mouth aperture
-     * @return Content of ma
+     * @return Content of ma, NaN if not measured
      */
     public float getMouthAperture() {
-        return features.get("ma");
+        return features[FeatureImporter.MA];
     }
 
     /**
@@ -133,7 +168,7 @@ public class FeatureFrame {
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("{ ");
-        features.forEach((k, v) -> stringBuilder.append(k).append(": ").append(v).append(", "));
+        getFeatureMap().forEach((k, v) -> stringBuilder.append(k).append(": ").append(v).append(", "));
         stringBuilder.delete(stringBuilder.length() - 2, stringBuilder.length() - 1);
         stringBuilder.append(" }");
         return stringBuilder.toString();
@@ -1,6 +1,7 @@
 package de.emotreco.featuremodel;
 
 import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
 
 /**
  * Converts the csvmodel into the featuremodel.
@@ -8,6 +9,12 @@ import de.emotreco.csvmodel.CSVFrame;
 public class FeatureImporter {
 
     public static final String[] FEATURE_COLUMN_NAMES = { "fob", "ea", "bd", "hnc", "vnc", "cw", "ma" }; // 7 features
+    // Indices of the features in FEATURE_COLUMN_NAMES
+    public static final int FOB = 0, EA = 1, BD = 2, HNC = 3, VNC = 4, CW = 5, MA = 6;
+    // Columns of CSVImporter.COLUMN_NAMES merged into each feature, in the order of FEATURE_COLUMN_NAMES
+    static final int[][] SOURCE_COLUMNS = {
+            { CSVImporter.FOB }, { CSVImporter.LEA, CSVImporter.REA }, { CSVImporter.LBD, CSVImporter.RBD },
+            { CSVImporter.HNC }, { CSVImporter.VNC }, { CSVImporter.LCW, CSVImporter.RCW }, { CSVImporter.MA } };
 
     public FeatureImporter() { }
 
@@ -22,9 +29,19 @@ public class FeatureImporter {
     public FeatureFrame[] convert(CSVFrame[] csvFrames) {
         FeatureFrame[] featureFrames = new FeatureFrame[csvFrames.length];
         for (int i = 0; i < featureFrames.length; i++) {
-            featureFrames[i] = new FeatureFrame(csvFrames[i]);
+            featureFrames[i] = convert(csvFrames[i]);
         }
         return featureFrames;
     }
 
+    /**
+     * Convert a single CSVFrame into a FeatureFrame, e.g. while streaming a file.
+     *
+     * @param csvFrame a frame of the csvmodel
+     * @return the frame in the feature model
+     */
+    public FeatureFrame convert(CSVFrame csvFrame) {
+        return new FeatureFrame(csvFrame);
+    }
+
 }
@@ -0,0 +1,271 @@
+package de.emotreco.featuremodel;
+
+import de.emotreco.csvmodel.CSVColumnStore;
+import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static de.emotreco.featuremodel.FeatureImporter.FEATURE_COLUMN_NAMES;
+
+/**
+ * Holds the frames of a whole session column by column in primitive arrays: the raw csv columns and the normalized
+ * features derived from them, without a CSVFrame or FeatureFrame per frame. The arrays are split into chunks of
+ * CHUNK_SIZE frames. Only the last chunk grows, doubling from INITIAL_CHUNK_SIZE frames, so a short session does not
+ * allocate a whole chunk and appending a frame never copies more than the frames of the last chunk.
+ * A raw cell costs 4 bytes and a feature 4 bytes plus a bit, about 90 bytes per frame in total.
+ *
+ * The features are identical to the ones of a FeatureFrame. Frames are addressed by their index in the store,
+ * a range of frame numbers can be found with <code>indexOfFrameNumber</code>.
+ * To classify the rows of a CSVColumnStore without copying them see CSVFeatureView.
+ */
+public class FrameStore implements FeatureColumns {
+
+    public static final int CHUNK_SHIFT = 14;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    public static final int INITIAL_CHUNK_SIZE = 64;
+
+    private static final int COLUMN_COUNT = CSVImporter.COLUMN_NAMES.length;
+
+    private Chunk[] chunks = new Chunk[0];
+    private int frameCount;
+    // True while the frame numbers (column Nr) are measured and strictly ascending, which allows a binary search
+    private boolean ascendingFrameNumbers = true;
+
+    /**
+     * Read a csv file into a new store.
+     *
+     * @param fileName path to the .csv file with the frames in it
+     * @return the store holding all frames of the file
+     * @throws IOException When the file could not be accessed.
+     */
+    public static FrameStore read(String fileName) throws IOException {
+        FrameStore store = new FrameStore();
+        store.append(new CSVImporter(fileName).readColumns());
+        return store;
+    }
+
+    /**
+     * Append all rows of parsed csv columns.
+     *
+     * @param columns the parsed rows
+     */
+    public void append(CSVColumnStore columns) {
+        for (int row = 0; row < columns.getRowCount(); row++) {
+            int frame = addFrame();
+            Chunk chunk = chunks[frame >>> CHUNK_SHIFT];
+            int offset = frame & CHUNK_MASK;
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                chunk.setRaw(column, offset, columns.isEmpty(column, row), columns.getInt(column, row));
+            }
+            finishFrame(frame);
+        }
+    }
+
+    /**
+     * Append a single frame, e.g. while streaming a file.
+     *
+     * @param csvFrame a frame of the csvmodel
+     * @return index of the frame in this store
+     */
+    public int append(CSVFrame csvFrame) {
+        int frame = addFrame();
+        Chunk chunk = chunks[frame >>> CHUNK_SHIFT];
+        int offset = frame & CHUNK_MASK;
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            chunk.setRaw(column, offset, csvFrame.isEmpty(column), csvFrame.getInt(column));
+        }
+        finishFrame(frame);
+        return frame;
+    }
+
+    private int addFrame() {
+        int chunk = frameCount >>> CHUNK_SHIFT;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length + 1);
+            chunks[chunk] = new Chunk();
+        }
+        chunks[chunk].ensureCapacity((frameCount & CHUNK_MASK) + 1);
+        return frameCount;
+    }
+
+    /**
+     * Derive the features of a frame from its raw columns, like FeatureFrame does, and make the frame visible.
+     */
+    private void finishFrame(int frame) {
+        Chunk chunk = chunks[frame >>> CHUNK_SHIFT];
+        int offset = frame & CHUNK_MASK;
+        if (chunk.isEmpty(CSVImporter.XRIGHT, offset) || chunk.isEmpty(CSVImporter.YLOW, offset)) {
+            throw new RuntimeException("Found a frame without a face size, its features can not be normalized: frame " + (frame + 1));
+        }
+        // Normalize all the values relatively to the face size
+        float faceFactor = chunk.raw[CSVImporter.XRIGHT][offset] * chunk.raw[CSVImporter.YLOW][offset] / 10_000f;
+        chunk.measuredFeatures[offset] = 0;
+
+        for (int feature = 0; feature < FEATURE_COLUMN_NAMES.length; feature++) {
+            float value = 0f;
+            int countedValues = 0;
+            for (int column : FeatureImporter.SOURCE_COLUMNS[feature]) {
+                if (!chunk.isEmpty(column, offset)) {
+                    countedValues++;
+                    value += (float) chunk.raw[column][offset] / faceFactor;
+                }
+            }
+            if (countedValues > 0) {
+                chunk.features[feature][offset] = value / countedValues;
+                chunk.measuredFeatures[offset] |= 1 << feature;
+            } else {
+                chunk.features[feature][offset] = Float.NaN;
+            }
+        }
+
+        if (ascendingFrameNumbers) {
+            ascendingFrameNumbers = !isEmpty(CSVImporter.NR, frame)
+                    && (frame == 0 || getInt(CSVImporter.NR, frame) > getInt(CSVImporter.NR, frame - 1));
+        }
+        frameCount++;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Check whether a raw cell was left empty in the csv file.
+     *
+     * @param column index of the column, see CSVImporter.COLUMN_NAMES
+     * @param frame index of the frame in this store
+     * @return true if no data was measured
+     */
+    public boolean isEmpty(int column, int frame) {
+        return chunks[frame >>> CHUNK_SHIFT].isEmpty(column, frame & CHUNK_MASK);
+    }
+
+    /**
+     * Get the raw value of a cell. Check <code>isEmpty</code> first.
+     *
+     * @param column index of the column, see CSVImporter.COLUMN_NAMES
+     * @param frame index of the frame in this store
+     * @return the value, 0 for empty cells
+     */
+    public int getInt(int column, int frame) {
+        return chunks[frame >>> CHUNK_SHIFT].raw[column][frame & CHUNK_MASK];
+    }
+
+    @Override
+    public boolean hasFeature(int feature, int frame) {
+        return (chunks[frame >>> CHUNK_SHIFT].measuredFeatures[frame & CHUNK_MASK] & (1 << feature)) != 0;
+    }
+
+    @Override
+    public float getFeature(int feature, int frame) {
+        return chunks[frame >>> CHUNK_SHIFT].features[feature][frame & CHUNK_MASK];
+    }
+
+    /**
+     * Find the first frame of a range of frame numbers (column Nr). The frames of the range follow it until
+     * a frame number is larger than the end of the range.
+     *
+     * @param frameNumber the first frame number of the range
+     * @return index of the first frame with at least this frame number, the frame count if there is none
+     * @throws IllegalStateException if the frame numbers are not strictly ascending
+     */
+    public int indexOfFrameNumber(int frameNumber) {
+        if (!ascendingFrameNumbers) {
+            throw new IllegalStateException("The frame numbers are not strictly ascending, frames can only be found by their index.");
+        }
+        int low = 0, high = frameCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getInt(CSVImporter.NR, middle) < frameNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return true if the frame numbers are strictly ascending, so <code>indexOfFrameNumber</code> can be used
+     */
+    public boolean hasAscendingFrameNumbers() {
+        return ascendingFrameNumbers;
+    }
+
+    public int getChunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * Get the values of a feature for the frames of a chunk, e.g. for FacialExpressionDescriptor.describeFeatures.
+     * The array is the storage of this store and must not be changed.
+     *
+     * @param feature index of the feature in FeatureImporter.FEATURE_COLUMN_NAMES
+     * @param chunk index of the chunk, frame i of the chunk is frame chunk * CHUNK_SIZE + i of the store
+     * @return the values, only the first <code>getChunkLength(chunk)</code> are valid
+     */
+    public float[] getFeatureChunk(int feature, int chunk) {
+        return chunks[chunk].features[feature];
+    }
+
+    /**
+     * @param chunk index of the chunk
+     * @return the amount of frames stored in the chunk
+     */
+    public int getChunkLength(int chunk) {
+        return Math.min(CHUNK_SIZE, frameCount - chunk * CHUNK_SIZE);
+    }
+
+    /**
+     * The columns of up to CHUNK_SIZE frames.
+     */
+    private static class Chunk {
+        // raw[column][offset]
+        private final int[][] raw = new int[COLUMN_COUNT][INITIAL_CHUNK_SIZE];
+        // emptyCells[column][offset / 64], a set bit marks an empty cell
+        private final long[][] emptyCells = new long[COLUMN_COUNT][INITIAL_CHUNK_SIZE >>> 6];
+        // features[feature][offset]
+        private final float[][] features = new float[FEATURE_COLUMN_NAMES.length][INITIAL_CHUNK_SIZE];
+        // Bit i is set if feature i was measured
+        private byte[] measuredFeatures = new byte[INITIAL_CHUNK_SIZE];
+
+        /**
+         * Double the arrays until they hold the given amount of frames, at most CHUNK_SIZE.
+         */
+        private void ensureCapacity(int length) {
+            if (length <= measuredFeatures.length) {
+                return;
+            }
+            int capacity = measuredFeatures.length;
+            while (capacity < length) {
+                capacity *= 2;
+            }
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                raw[column] = Arrays.copyOf(raw[column], capacity);
+                emptyCells[column] = Arrays.copyOf(emptyCells[column], capacity >>> 6);
+            }
+            for (int feature = 0; feature < features.length; feature++) {
+                features[feature] = Arrays.copyOf(features[feature], capacity);
+            }
+            measuredFeatures = Arrays.copyOf(measuredFeatures, capacity);
+        }
+
+        private void setRaw(int column, int offset, boolean empty, int value) {
+            if (empty) {
+                raw[column][offset] = 0;
+                emptyCells[column][offset >>> 6] |= 1L << offset;
+            } else {
+                raw[column][offset] = value;
+                emptyCells[column][offset >>> 6] &= ~(1L << offset);
+            }
+        }
+
+        private boolean isEmpty(int column, int offset) {
+            return (emptyCells[column][offset >>> 6] & (1L << offset)) != 0;
+        }
+    }
+}
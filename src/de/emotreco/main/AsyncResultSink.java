@@ -0,0 +1,177 @@
+package de.emotreco.main;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Formats and prints the output on a single background thread, so the classifying thread only hands over the results.
+ * The lines are queued in a bounded queue, a full queue blocks the classification until the writer catches up.
+ * The writer takes all queued lines at once and prints them with one call to the stream, instead of one call per line.
+ * The lines are printed in the order they were handed over.
+ */
+public class AsyncResultSink implements ResultSink {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** Marks the end of the output, the writer stops after it */
+    private static final Object END = new Object();
+
+    private final PrintStream out;
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final Thread writer;
+    private volatile RuntimeException failure;
+    private boolean closed;
+
+    /**
+     * Create a sink with the default capacity.
+     *
+     * @param out the stream to print to
+     */
+    public AsyncResultSink(PrintStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a sink and start its writer thread.
+     *
+     * @param out the stream to print to
+     * @param capacity amount of lines which can be queued before the classification has to wait
+     */
+    public AsyncResultSink(PrintStream out, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity has to be at least 1, got " + capacity + ".");
+        }
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = capacity;
+        this.writer = new Thread(this::write, "result-sink");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void printLine(String line) {
+        enqueue(line);
+    }
+
+    @Override
+    public void printResult(ClassificationResult result, long index) {
+        enqueue(new Result(result, index));
+    }
+
+    /**
+     * Waits until the writer printed everything handed over so far.
+     *
+     * @throws RuntimeException if formatting a result failed on the writer thread
+     */
+    @Override
+    public void flush() {
+        CountDownLatch written = new CountDownLatch(1);
+        enqueue(written);
+        try {
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the output.", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Prints everything handed over so far and stops the writer thread. Further output is rejected.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        enqueue(END);
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the output.", e);
+        }
+    }
+
+    private void enqueue(Object element) {
+        if (closed) {
+            throw new IllegalStateException("The sink is already closed.");
+        }
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while handing over the output.", e);
+        }
+    }
+
+    /**
+     * Loop of the writer thread. Takes the queued elements in batches, formats them and prints every batch at once.
+     */
+    private void write() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        StringBuilder text = new StringBuilder();
+        String lineSeparator = System.lineSeparator();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // Only close() ends the writer, otherwise queued lines would be lost
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            List<CountDownLatch> flushed = new ArrayList<>();
+            for (Object element : batch) {
+                if (element == END) {
+                    running = false;
+                } else if (element instanceof CountDownLatch) {
+                    flushed.add((CountDownLatch) element);
+                } else {
+                    try {
+                        text.append(element instanceof Result ? ((Result) element).format() : (String) element).append(lineSeparator);
+                    } catch (RuntimeException e) {
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    }
+                }
+            }
+            out.print(text);
+            out.flush();
+            text.setLength(0);
+            batch.clear();
+            for (CountDownLatch latch : flushed) {
+                latch.countDown();
+            }
+        }
+    }
+
+    /**
+     * A classified frame which is formatted by the writer. The result is copied, the classification reuses its holder.
+     */
+    private static class Result {
+        private final ClassificationResult result;
+        private final long index;
+
+        private Result(ClassificationResult result, long index) {
+            this.result = new ClassificationResult(result);
+            this.index = index;
+        }
+
+        private String format() {
+            return EmotionClassifier.formatClassificationResult(result, index);
+        }
+    }
+}
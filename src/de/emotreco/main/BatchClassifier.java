@@ -0,0 +1,143 @@
+package de.emotreco.main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Classifies many .csv files concurrently. Every file is classified by its own EmotionClassifier on a pool of worker threads.
+ * The output of a file is buffered while it is classified and printed in one piece, in the order of the given files,
+ * together with the wall-clock time the file took. Only a few files per thread are in flight at a time, a file is not
+ * started before the files far enough ahead of it were printed, so the buffered output stays bounded for large batches.
+ */
+public class BatchClassifier {
+
+    // Files submitted per thread which are classified or wait to be printed
+    private static final int FILES_IN_FLIGHT_PER_THREAD = 2;
+
+    private final int threads;
+    private final PrintStream out;
+
+    /**
+     * Create a batch classifier printing to the systems standard output stream (console).
+     *
+     * @param threads amount of files classified at the same time
+     */
+    public BatchClassifier(int threads) {
+        this(threads, System.out);
+    }
+
+    /**
+     * Create a batch classifier.
+     *
+     * @param threads amount of files classified at the same time
+     * @param out the stream the output of all files is printed to
+     */
+    public BatchClassifier(int threads, PrintStream out) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, got " + threads + ".");
+        }
+        this.threads = threads;
+        this.out = out;
+    }
+
+    /**
+     * Classify all files and print their results file by file. A file that fails is reported and does not stop the others.
+     *
+     * @param files the .csv files to classify
+     * @return the amount of files which were classified successfully
+     */
+    public int classifyFiles(File[] files) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long batchStart = System.nanoTime();
+        try {
+            int window = threads * FILES_IN_FLIGHT_PER_THREAD;
+            Deque<Future<FileResult>> results = new ArrayDeque<>(window);
+            int submitted = 0;
+            while (submitted < files.length && submitted < window) {
+                results.add(submit(pool, files[submitted++]));
+            }
+
+            int succeeded = 0;
+            long summedNanos = 0;
+            for (int i = 0; i < files.length; i++) {
+                FileResult result = waitFor(results.poll());
+                if (submitted < files.length) {
+                    results.add(submit(pool, files[submitted++]));
+                }
+                if (result == null) {
+                    out.println("Classification of " + files[i].getPath() + " failed.");
+                    continue;
+                }
+                out.write(result.output, 0, result.output.length);
+                out.println("Classified " + files[i].getPath() + " in " + toMillis(result.nanos) + " ms.");
+                summedNanos += result.nanos;
+                if (result.succeeded) {
+                    succeeded++;
+                }
+            }
+
+            long batchNanos = System.nanoTime() - batchStart;
+            out.println("Classified " + succeeded + " of " + files.length + " files in " + toMillis(batchNanos) + " ms using "
+                    + threads + " threads. Summed time per file: " + toMillis(summedNanos) + " ms.");
+            return succeeded;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Future<FileResult> submit(ForkJoinPool pool, File file) {
+        return pool.submit(() -> classifyFile(file));
+    }
+
+    private FileResult classifyFile(File file) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        boolean succeeded;
+        try (PrintStream fileOut = new PrintStream(buffer)) {
+            try {
+                succeeded = new EmotionClassifier(fileOut).classifyFileResults(file.getAbsolutePath()) != null;
+            } catch (RuntimeException e) {
+                e.printStackTrace(fileOut);
+                succeeded = false;
+            }
+        }
+        return new FileResult(buffer.toByteArray(), System.nanoTime() - start, succeeded);
+    }
+
+    private FileResult waitFor(Future<FileResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the classification.", e);
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            return null;
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * Buffered output of a classified file.
+     */
+    private static class FileResult {
+        private final byte[] output;
+        private final long nanos;
+        private final boolean succeeded;
+
+        private FileResult(byte[] output, long nanos, boolean succeeded) {
+            this.output = output;
+            this.nanos = nanos;
+            this.succeeded = succeeded;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package de.emotreco.main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static de.emotreco.main.BinaryResultWriter.BUFFER_RECORDS;
+import static de.emotreco.main.BinaryResultWriter.BYTE_ORDER;
+import static de.emotreco.main.BinaryResultWriter.HEADER_SIZE;
+import static de.emotreco.main.BinaryResultWriter.MAGIC;
+import static de.emotreco.main.BinaryResultWriter.RECORD_SIZE;
+import static de.emotreco.main.BinaryResultWriter.VERSION;
+
+/**
+ * Reads the records of a file written by a BinaryResultWriter one after another into a reusable ClassificationResult.
+ * The file is read through a direct buffer in blocks of many records. As all records have the same size,
+ * any record can be reached with <code>seek</code> without reading the ones before it.
+ */
+public class BinaryResultReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(BYTE_ORDER);
+    private final long recordCount;
+    private long nextRecord;
+
+    /**
+     * Open a file and check its header.
+     *
+     * @param file the path of the binary file
+     * @throws IOException if the file could not be read or was not written by a BinaryResultWriter
+     */
+    public BinaryResultReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a binary result file.");
+            }
+            int version = header.getInt();
+            int recordSize = header.getInt();
+            if (version != VERSION || recordSize != RECORD_SIZE) {
+                throw new IOException(file + " has the unsupported version " + version + " with records of " + recordSize + " bytes.");
+            }
+            recordCount = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        buffer.limit(0);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @param result receives the winner index, belief, plausability, doubt and conflict of the record
+     * @return the index of the frame, -1 if all records were read
+     * @throws IOException if the file could not be read
+     */
+    public long read(ClassificationResult result) throws IOException {
+        if (nextRecord >= recordCount) {
+            return -1;
+        }
+        if (buffer.remaining() < RECORD_SIZE) {
+            fill();
+        }
+        long frame = buffer.getLong();
+        int winnerIndex = buffer.getInt();
+        result.set(winnerIndex, buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+        nextRecord++;
+        return frame;
+    }
+
+    private void fill() throws IOException {
+        buffer.compact();
+        long position = HEADER_SIZE + nextRecord * RECORD_SIZE + buffer.position();
+        while (buffer.position() < RECORD_SIZE) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("The file ended within record " + nextRecord + ".");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Continue reading at a record.
+     *
+     * @param record the index of the record, between 0 and the record count
+     */
+    public void seek(long record) {
+        if (record < 0 || record > recordCount) {
+            throw new IndexOutOfBoundsException("Record " + record + " is out of range, the file has " + recordCount + " records.");
+        }
+        nextRecord = record;
+        buffer.limit(0);
+    }
+
+    /**
+     * @return the amount of complete records in the file
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,133 @@
+package de.emotreco.main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes classified frames as fixed-width binary records instead of text, so they can be reloaded with a
+ * BinaryResultReader without parsing. The records are collected in a direct buffer and written to a FileChannel
+ * whenever the buffer is full.
+ *
+ * The file starts with a header of HEADER_SIZE bytes: the magic number, the version and the record size as int.
+ * Every record holds the frame index (long), the winner index (int, -1 if the frame could not be classified),
+ * the belief, plausability, doubt and conflict of the winner (double). All values are little endian.
+ * Progress messages are not part of the file and are ignored.
+ */
+public class BinaryResultWriter implements ResultSink {
+
+    public static final int MAGIC = 0x454D5231; // "EMR1"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = Long.BYTES + Integer.BYTES + 4 * Double.BYTES;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int BUFFER_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(BYTE_ORDER);
+    private long recordCount;
+
+    /**
+     * Create the file, an existing file is overwritten.
+     *
+     * @param file the path of the binary file
+     * @throws IOException if the file could not be created
+     */
+    public BinaryResultWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0);
+    }
+
+    /**
+     * Appends the record of a frame classified by a ClassificationContext. Does not create any objects.
+     *
+     * @param frame the index of the frame
+     * @param result the classification of the frame
+     */
+    public void write(long frame, ClassificationResult result) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            drain();
+        }
+        buffer.putLong(frame).putInt(result.getWinnerIndex()).putDouble(result.getBelief()).putDouble(result.getPlausability())
+                .putDouble(result.getDoubt()).putDouble(result.getConflict());
+        recordCount++;
+    }
+
+    /**
+     * Appends the record of a frame classified by an EmotionClassifier.
+     *
+     * @param result the classification of the frame
+     * @param index the index of the frame
+     */
+    @Override
+    public void printResult(ClassificationResult result, long index) {
+        write(index, result);
+    }
+
+    /**
+     * Progress messages are not stored.
+     */
+    @Override
+    public void printLine(String line) {
+    }
+
+    /**
+     * @return false, the records are built from the results
+     */
+    @Override
+    public boolean acceptsFormattedResults() {
+        return false;
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     *
+     * @throws UncheckedIOException if writing failed
+     */
+    @Override
+    public void flush() {
+        drain();
+    }
+
+    /**
+     * Writes the buffered records and closes the file.
+     *
+     * @throws UncheckedIOException if writing or closing failed
+     */
+    @Override
+    public void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+}
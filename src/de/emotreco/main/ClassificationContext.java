@@ -0,0 +1,135 @@
+package de.emotreco.main;
+
+import de.emotreco.facialexpressionmodel.EmotionRules;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.FeatureColumns;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.main.dempster.BitmaskAccumulator;
+import de.emotreco.main.dempster.BitmaskMeasure;
+import de.emotreco.main.dempster.CombinationPlanCache;
+import de.emotreco.main.dempster.MeasureSummary;
+
+/**
+ * Reusable state for classifying frames without creating objects per frame.
+ * All buffers are allocated up front and reset for every frame, the outcome is written into a ClassificationResult.
+ * The rules are looked up in the precompiled EmotionRules.
+ * The results are identical to EmotionClassifier. A context is thread-confined: use one context per thread.
+ */
+public class ClassificationContext {
+
+    private FacialExpressionDescriptor descriptor;
+    private final BitmaskAccumulator accumulator = new BitmaskAccumulator(EmotionRules.EMOTION_AMOUNT);
+    private final CombinationPlanCache planCache = new CombinationPlanCache(EmotionRules.EMOTION_AMOUNT);
+
+    /**
+     * Create a context classifying frames with the given descriptor.
+     *
+     * @param descriptor the descriptor, trained with the first n balanced sets of frames.
+     */
+    public ClassificationContext(FacialExpressionDescriptor descriptor) {
+        this.descriptor = descriptor;
+        accumulator.setPlanCache(planCache);
+        // Create all the measures once
+        for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+            accumulator.addMeasure();
+        }
+        accumulator.accumulateAllMeasures();
+    }
+
+    /**
+     * Replace the descriptor, e.g. when the calibration follows the latest frames. The buffers are kept.
+     *
+     * @param descriptor the descriptor to classify the next frames with
+     */
+    public void setDescriptor(FacialExpressionDescriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * Classify a frame like EmotionClassifier does and report the winner with its belief, plausability and doubt.
+     *
+     * @param frame The filtered, merged and normalized FeatureFrame to classify
+     * @param result the holder to write the classification into. If no feature could be measured the winner index is -1
+     */
+    public void classifyFrame(FeatureFrame frame, ClassificationResult result) {
+        summarize(combineFrame(frame), result);
+    }
+
+    /**
+     * Classify a frame of a FrameStore or CSVFeatureView, identical to classifying the FeatureFrame of the same csv row.
+     *
+     * @param store the frames of a session
+     * @param frame index of the frame in the store
+     * @param result the holder to write the classification into. If no feature could be measured the winner index is -1
+     */
+    public void classifyFrame(FeatureColumns store, int frame, ClassificationResult result) {
+        summarize(combineFrame(store, frame), result);
+    }
+
+    /**
+     * Combine the measures of all features of a frame, e.g. to fuse them with the previous frames before summarizing.
+     *
+     * @param frame The filtered, merged and normalized FeatureFrame to classify
+     * @return the accumulated measure, only valid until the next frame is combined. Null if no feature could be measured
+     */
+    public BitmaskMeasure combineFrame(FeatureFrame frame) {
+        accumulator.reset();
+        for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+            // If there is no data for an expression it does not count as measure
+            if (frame.hasFeature(i)) {
+                addMeasure(i, frame.getFeature(i));
+            }
+        }
+        return accumulator.accumulateAllMeasures();
+    }
+
+    /**
+     * Combine the measures of all features of a frame of a FrameStore or CSVFeatureView.
+     *
+     * @param store the frames of a session
+     * @param frame index of the frame in the store
+     * @return the accumulated measure, only valid until the next frame is combined. Null if no feature could be measured
+     */
+    public BitmaskMeasure combineFrame(FeatureColumns store, int frame) {
+        accumulator.reset();
+        for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+            if (store.hasFeature(i, frame)) {
+                addMeasure(i, store.getFeature(i, frame));
+            }
+        }
+        return accumulator.accumulateAllMeasures();
+    }
+
+    private void addMeasure(int i, float x) {
+        int intensity = descriptor.describeFeature(i, x);
+        accumulator.addMeasure().addEntry(EmotionRules.getMatchingMask(i, intensity), descriptor.calculateConfidence(intensity, i, x));
+    }
+
+    /**
+     * Report the winner of an accumulated measure with its belief, plausability and doubt, see MeasureSummary.summarizeWinner.
+     *
+     * @param measure a measure over the emotions, null if no feature could be measured
+     * @param result the holder to write the classification into. If there is no winner the winner index is -1
+     */
+    public static void summarize(BitmaskMeasure measure, ClassificationResult result) {
+        if (measure == null) {
+            result.set(-1, 0.0, 0.0, 1.0, 0.0);
+        } else {
+            MeasureSummary.summarizeWinner(measure, result);
+        }
+    }
+
+    public FacialExpressionDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * The cached plans of the accumulation, e.g. to report its hit rate.
+     *
+     * @return the plan cache of this context
+     */
+    public CombinationPlanCache getPlanCache() {
+        return planCache;
+    }
+}
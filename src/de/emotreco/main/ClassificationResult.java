@@ -0,0 +1,85 @@
+package de.emotreco.main;
+
+import de.emotreco.main.dempster.MeasureEntry;
+import de.emotreco.main.dempster.MeasureSummary;
+
+/**
+ * Mutable holder for the classification of a single frame. It is filled by a ClassificationContext
+ * and can be reused for every frame, so reporting a result does not require a Measure object.
+ */
+public class ClassificationResult implements MeasureSummary.WinnerSink {
+
+    private int winnerIndex = -1;
+    private double belief, plausability, doubt, conflict;
+
+    /**
+     * Create an empty holder, to be filled by a ClassificationContext.
+     */
+    public ClassificationResult() {
+    }
+
+    /**
+     * Copy a result, e.g. to keep it after its holder was reused for the next frame.
+     *
+     * @param result the result to copy
+     */
+    public ClassificationResult(ClassificationResult result) {
+        set(result.winnerIndex, result.belief, result.plausability, result.doubt, result.conflict);
+    }
+
+    void set(int winnerIndex, double belief, double plausability, double doubt, double conflict) {
+        this.winnerIndex = winnerIndex;
+        this.belief = belief;
+        this.plausability = plausability;
+        this.doubt = doubt;
+        this.conflict = conflict;
+    }
+
+    /**
+     * Receive the winner of a measure, see MeasureSummary.summarizeWinner. The doubt is derived from the plausability.
+     */
+    @Override
+    public void setWinner(int alternative, double belief, double plausability, double conflict) {
+        set(alternative, belief, plausability, 1 - plausability, conflict);
+    }
+
+    /**
+     * Get the index of the winning emotion, see MeasureEntry.getEmotionIndex.
+     *
+     * @return the emotion index or -1 if the frame could not be classified
+     */
+    public int getWinnerIndex() {
+        return winnerIndex;
+    }
+
+    /**
+     * Get the name of the winning emotion.
+     *
+     * @return for example "JOY", null if the frame could not be classified
+     */
+    public String getEmotion() {
+        return MeasureEntry.getEmotion(winnerIndex);
+    }
+
+    public double getBelief() {
+        return belief;
+    }
+
+    public double getPlausability() {
+        return plausability;
+    }
+
+    public double getDoubt() {
+        return doubt;
+    }
+
+    /**
+     * Get the conflict of the evidence of the frame, see Measure.getConflict. A high conflict means the features
+     * contradicted each other and the classification is less trustworthy.
+     *
+     * @return the conflict between 0 and 1
+     */
+    public double getConflict() {
+        return conflict;
+    }
+}
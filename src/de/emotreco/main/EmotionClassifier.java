@@ -1,69 +1,537 @@
 package de.emotreco.main;
 
+import de.emotreco.csvmodel.CSVColumnStore;
 import de.emotreco.csvmodel.CSVFrame;
 import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.csvmodel.OffHeapCSVColumnStore;
+import de.emotreco.facialexpressionmodel.CalibrationProfiles;
+import de.emotreco.facialexpressionmodel.EmotionRules;
 import de.emotreco.facialexpressionmodel.FacialExpression;
 import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.CSVFeatureView;
+import de.emotreco.featuremodel.FeatureColumns;
 import de.emotreco.featuremodel.FeatureFrame;
 import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.featuremodel.FrameStore;
+import de.emotreco.main.dempster.BitmaskMeasure;
 import de.emotreco.main.dempster.DempsterHandler;
+import de.emotreco.main.dempster.FrameOfDiscernment;
 import de.emotreco.main.dempster.Measure;
-import de.emotreco.main.dempster.MeasureEntry;
+import de.emotreco.main.dempster.MeasureSummary;
+import de.emotreco.main.dempster.TemporalFusion;
 import de.emotreco.utils.MathUtils;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static de.emotreco.facialexpressionmodel.FacialExpressionDescriptor.TRAINING_FRAME_AMOUNT;
 
 public class EmotionClassifier {
 
+    private final ResultSink sink;
+    private DempsterHandler.Engine engine = DempsterHandler.Engine.BITMASK;
+    private int parallelism = 1;
+    // Classifies the frames if parallelism > 1, its threads are daemons and end when they are idle
+    private ForkJoinPool pool;
+    private boolean temporalFusion;
+    private int fusionWindow;
+    private double fusionReliability;
+    private CalibrationProfiles profiles;
+    private String profileSubject, profileCamera;
+    private boolean offHeapColumns;
+
+    /**
+     * Create a classifier printing to the systems standard output stream (console).
+     */
+    public EmotionClassifier() {
+        this(System.out);
+    }
+
+    /**
+     * Create a classifier printing its progress and results to a custom stream, e.g. a buffer per file.
+     *
+     * @param out the stream to print to
+     */
+    public EmotionClassifier(PrintStream out) {
+        this(new PrintStreamResultSink(out));
+    }
+
+    /**
+     * Create a classifier handing its progress and results to a sink, e.g. an AsyncResultSink or ResultSink.SILENT.
+     * The sink is flushed after every file but not closed.
+     *
+     * @param sink the sink receiving the output
+     */
+    public EmotionClassifier(ResultSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Select the implementation used for accumulating the measures of a frame. Both engines produce identical results.
+     *
+     * @param engine defaults to BITMASK
+     */
+    public void setEngine(DempsterHandler.Engine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Classify the frames of a file with multiple threads. After the descriptor is built the frames are split into chunks
+     * which are classified on a fork-join pool. The results are printed in frame order and are identical to the sequential ones.
+     * With temporal fusion every frame depends on the previous ones, so the frames are classified sequentially.
+     * The pool is created once and reused for every file of this classifier.
+     *
+     * @param parallelism amount of threads per file, 1 (default) classifies sequentially
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, got " + parallelism + ".");
+        }
+        if (parallelism != this.parallelism) {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Fuse the measure of every frame with the measures of the previous frames of the file, see TemporalFusion.
+     * The printed and returned results are the fused ones. By default every frame is classified on its own.
+     *
+     * @param window amount of previous frames to fuse, TemporalFusion.UNBOUNDED for all previous frames
+     * @param reliability discount of previous frames between 0 and 1
+     */
+    public void setTemporalFusion(int window, double reliability) {
+        if (window < 0) {
+            throw new IllegalArgumentException("The window can not be negative, got " + window + ".");
+        }
+        if (!(reliability >= 0 && reliability <= 1)) {
+            throw new IllegalArgumentException("The reliability has to be between 0 and 1, got " + reliability + ".");
+        }
+        this.temporalFusion = true;
+        this.fusionWindow = window;
+        this.fusionReliability = reliability;
+    }
+
+    /**
+     * Classify every frame on its own again, which is the default.
+     */
+    public void disableTemporalFusion() {
+        this.temporalFusion = false;
+    }
+
+    /**
+     * Read the frames of <code>classifyFile</code> into an OffHeapCSVColumnStore and classify them from its columns directly,
+     * through a CSVFeatureView. The heap then does not grow with the length of a recording, neither for the cells nor for
+     * CSVFrames or FeatureFrames. The results are identical. Only the BITMASK engine reads the columns directly,
+     * the LIST engine always classifies FeatureFrames on the heap.
+     *
+     * @param offHeapColumns true to keep the columns off the heap, false (default) to read them into a FrameStore on the heap
+     */
+    public void setOffHeapColumns(boolean offHeapColumns) {
+        this.offHeapColumns = offHeapColumns;
+    }
+
+    /**
+     * Calibrate with the profile of a subject in front of a camera, see CalibrationProfiles. If a profile exists, the
+     * frames are classified with it from the first frame on and the first frames of a file are not needed for calibrating.
+     * Otherwise the file is calibrated as usual and the calibration is saved as profile for the next files.
+     *
+     * @param profiles the stored profiles
+     * @param subject id of the subject
+     * @param camera id of the camera
+     */
+    public void setCalibrationProfile(CalibrationProfiles profiles, String subject, String camera) {
+        this.profiles = profiles;
+        this.profileSubject = subject;
+        this.profileCamera = camera;
+    }
+
+    /**
+     * Calibrate every file with its own first frames again, which is the default.
+     */
+    public void disableCalibrationProfile() {
+        this.profiles = null;
+    }
+
+    /**
+     * @return the calibration of the profile, null if there is no profile
+     * @throws IOException if the profile could not be read
+     */
+    private FacialExpressionDescriptor loadCalibrationProfile() throws IOException {
+        return profiles == null ? null : profiles.load(profileSubject, profileCamera);
+    }
+
+    private void saveCalibrationProfile(FacialExpressionDescriptor descriptor) throws IOException {
+        if (profiles != null) {
+            profiles.save(profileSubject, profileCamera, descriptor);
+        }
+    }
+
+    /**
+     * Load the calibration profile, or build the descriptor from the first frames of the file and save it as profile.
+     *
+     * @param training builds the descriptor from the first frames of the file
+     * @return the descriptor to classify the frames of the file with
+     * @throws IOException if the profile could not be read or written
+     */
+    private FacialExpressionDescriptor calibrate(Supplier<FacialExpressionDescriptor> training) throws IOException {
+        FacialExpressionDescriptor descriptor = loadCalibrationProfile();
+        if (descriptor == null) {
+            sink.printLine("Building a descriptor...");
+            descriptor = training.get();
+            saveCalibrationProfile(descriptor);
+        } else {
+            sink.printLine("Using the calibration profile of " + profileSubject + " at " + profileCamera + "...");
+        }
+        return descriptor;
+    }
+
+    /**
+     * @return a new fusion for the frames of one file, null if the frames are classified on their own
+     */
+    private TemporalFusion createTemporalFusion() {
+        return temporalFusion ? new TemporalFusion(EmotionRules.EMOTION_AMOUNT, fusionWindow, fusionReliability) : null;
+    }
+
     /**
      * Reads, processes, classifies an amount of frames defined in a .csv file which should match the CSVImporter.
-     * Uses <code>printClassificationResult</code> for printing the result which is also returned for debug purposes .
+     * Every result is handed to the sink of this classifier and the measure of every frame is also returned for debug purposes.
+     * To classify without creating a Measure per frame use <code>classifyFileResults</code>.
+     *
+     * @param fileName path to the .csv file with the frames in it.
+     * @return the measured emotions, a vacuous measure for a frame without any measured feature. Null if fail
+     */
+    public Measure[] classifyFile(String fileName) {
+        FileClassification classification = classify(fileName, true);
+        return classification == null ? null : classification.measures;
+    }
+
+    /**
+     * Classifies a file like <code>classifyFile</code> but only returns the winner of every frame with its belief,
+     * plausability and doubt, which is all the sink receives anyway.
      *
      * The conversion happens through three abstract layers: csvmodel to featuremodel to facialexpressionmodel
+     * The descriptor is calibrated with the first frames, or loaded from a calibration profile, see setCalibrationProfile.
+     * The frames are classified with one ClassificationContext per thread, a Measure is only created for the LIST engine.
+     * The BITMASK engine classifies the frames from the columns of a FrameStore, the LIST engine from FeatureFrames.
+     * With <code>setOffHeapColumns</code> the frames are classified from the columns of an OffHeapCSVColumnStore instead.
      *
      * @param fileName path to the .csv file with the frames in it.
-     * @return the measured emotions, null if fail
+     * @return the classification of every frame, null if fail
      */
-    public Measure[] classifyFile(String fileName) {
+    public ClassificationResult[] classifyFileResults(String fileName) {
+        FileClassification classification = classify(fileName, false);
+        return classification == null ? null : classification.results;
+    }
+
+    /**
+     * Classifies a file, see <code>classifyFileResults</code>.
+     *
+     * @param fileName path to the .csv file with the frames in it.
+     * @param keepMeasures true to keep the measure of every frame
+     * @return the classification of every frame, null if fail
+     */
+    private FileClassification classify(String fileName, boolean keepMeasures) {
+        if (engine == DempsterHandler.Engine.BITMASK) {
+            return offHeapColumns ? classifyFileOffHeap(fileName, keepMeasures) : classifyFileColumns(fileName, keepMeasures);
+        }
         try {
-            System.out.println("Starting with import of csvmodel.....");
+            sink.printLine("Starting with import of csvmodel.....");
             CSVFrame[] csvFrames = new CSVImporter(fileName).readFile();
 
-            System.out.println("Import of csvmodel done.");
-            System.out.println("Conversion into featuremodel running...");
+            sink.printLine("Import of csvmodel done.");
+            sink.printLine("Conversion into featuremodel running...");
 
             FeatureFrame[] featureFrames = new FeatureImporter().convert(csvFrames);
 
-            System.out.println("Conversion into featuremodel done.");
-            System.out.println("Building a descriptor...");
+            sink.printLine("Conversion into featuremodel done.");
+            FacialExpressionDescriptor descriptor = calibrate(() -> new FacialExpressionDescriptor(featureFrames));
+            return classifyFrames(featureFrames.length, descriptor, keepMeasures,
+                    (context, i, fusion, result) -> classifyFrame(context, featureFrames[i], fusion, result, keepMeasures));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Counterpart of <code>classify</code> for the BITMASK engine. The columns are read into a FrameStore, which derives
+     * the features of every frame once without creating a CSVFrame or FeatureFrame per frame.
+     *
+     * @param fileName path to the .csv file with the frames in it.
+     * @param keepMeasures true to keep the measure of every frame
+     * @return the classification of every frame, null if fail
+     */
+    private FileClassification classifyFileColumns(String fileName, boolean keepMeasures) {
+        try {
+            sink.printLine("Starting with import of csvmodel.....");
+            CSVColumnStore columns = new CSVImporter(fileName).readColumns();
 
-            FacialExpressionDescriptor descriptor = new FacialExpressionDescriptor(featureFrames);
-            Measure[] emotions = new Measure[featureFrames.length];
+            sink.printLine("Import of csvmodel done.");
+            sink.printLine("Conversion into featuremodel running...");
 
-            System.out.println("Done. Classifying frames now...");
-            for (int i = 0; i < featureFrames.length; i++) {
-                emotions[i] = classifyFrame(featureFrames[i], descriptor);
-                printClassificationResult(emotions[i], i);
-            }
-            System.out.println("Classification done!");
+            FrameStore features = new FrameStore();
+            features.append(columns);
 
-            return emotions;
+            sink.printLine("Conversion into featuremodel done.");
+            return classifyColumns(features, keepMeasures);
         } catch (IOException e) {
             e.printStackTrace();
         }
         return null;
     }
 
+    /**
+     * Off-heap counterpart of <code>classifyFileColumns</code>. The columns are read into an
+     * OffHeapCSVColumnStore and the features are derived from them while the frames are classified.
+     * The store is closed once all frames are classified.
+     *
+     * @param fileName path to the .csv file with the frames in it.
+     * @param keepMeasures true to keep the measure of every frame
+     * @return the classification of every frame, null if fail
+     */
+    private FileClassification classifyFileOffHeap(String fileName, boolean keepMeasures) {
+        sink.printLine("Starting with import of csvmodel.....");
+        try (OffHeapCSVColumnStore columns = new CSVImporter(fileName).readColumnsOffHeap()) {
+            sink.printLine("Import of csvmodel done.");
+            sink.printLine("Conversion into featuremodel running...");
+
+            CSVFeatureView features = new CSVFeatureView(columns);
+
+            sink.printLine("Conversion into featuremodel done.");
+            return classifyColumns(features, keepMeasures);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Calibrates with the features of a file and classifies all of its frames with the BITMASK engine.
+     *
+     * @param features the features of every frame of the file
+     * @param keepMeasures true to keep the measure of every frame
+     * @return the classification of every frame
+     * @throws IOException if the calibration profile could not be read or written
+     */
+    private FileClassification classifyColumns(FeatureColumns features, boolean keepMeasures) throws IOException {
+        FacialExpressionDescriptor descriptor = calibrate(() -> new FacialExpressionDescriptor(features));
+        return classifyFrames(features.getFrameCount(), descriptor, keepMeasures,
+                (context, i, fusion, result) -> classifyFrame(context, features, i, fusion, result, keepMeasures));
+    }
+
+    /**
+     * Classifies and prints all frames of a file, sequentially or in parallel, see <code>setParallelism</code>.
+     *
+     * @param frameCount amount of frames of the file
+     * @param descriptor the descriptor, trained with the first n balanced sets of frames.
+     * @param keepMeasures true to keep the measure of every frame
+     * @param frames classifies a frame of the file
+     * @return the classification of every frame
+     */
+    private FileClassification classifyFrames(int frameCount, FacialExpressionDescriptor descriptor, boolean keepMeasures,
+                                              FrameClassifier frames) {
+        ClassificationResult[] results = new ClassificationResult[frameCount];
+        Measure[] measures = keepMeasures ? new Measure[frameCount] : null;
+
+        sink.printLine("Done. Classifying frames now...");
+        TemporalFusion fusion = createTemporalFusion();
+        if (parallelism > 1 && fusion == null) {
+            classifyFramesInParallel(frames, descriptor, results, measures);
+        } else {
+            ClassificationContext context = new ClassificationContext(descriptor);
+            for (int i = 0; i < frameCount; i++) {
+                results[i] = new ClassificationResult();
+                Measure measure = frames.classify(context, i, fusion, results[i]);
+                if (measures != null) {
+                    measures[i] = measure;
+                }
+                sink.printResult(results[i], i);
+            }
+        }
+        sink.printLine("Classification done!");
+        sink.flush();
+
+        return new FileClassification(results, measures);
+    }
+
+    /**
+     * Classifies and formats all frames on a fork-join pool, then prints them in frame order.
+     * Every thread of the pool classifies with its own ClassificationContext.
+     * The formatting is skipped if the sink does not accept formatted results.
+     *
+     * @param frames classifies a frame of the file
+     * @param descriptor the descriptor, trained with the first n balanced sets of frames.
+     * @param results receives the classification of every frame
+     * @param measures receives the measure of every frame, null if the measures are not kept
+     */
+    private void classifyFramesInParallel(FrameClassifier frames, FacialExpressionDescriptor descriptor, ClassificationResult[] results,
+                                          Measure[] measures) {
+        String[] lines = sink.acceptsFormattedResults() ? new String[results.length] : null;
+        ThreadLocal<ClassificationContext> contexts = ThreadLocal.withInitial(() -> new ClassificationContext(descriptor));
+        pool.invoke(new FrameRangeTask(frames, contexts, results, measures, lines, 0, results.length));
+        if (lines != null) {
+            for (String line : lines) {
+                sink.printLine(line);
+            }
+        } else {
+            for (int i = 0; i < results.length; i++) {
+                sink.printResult(results[i], i);
+            }
+        }
+    }
+
+    /**
+     * Streaming counterpart of <code>classifyFileResults</code>. The frames are read, converted and classified one by one.
+     * Only the first TRAINING_FRAME_AMOUNT frames are held back until the descriptor is built, every later frame is
+     * classified as soon as it is read. The results are printed and handed to the consumer in frame order instead of being collected.
+     *
+     * @param fileName path to the .csv file with the frames in it.
+     * @param consumer receives the classification of every frame in a reused holder, copy it to keep it. Can be null
+     * @return the amount of classified frames, -1 if fail
+     */
+    public long classifyFileStreaming(String fileName, Consumer<ClassificationResult> consumer) {
+        sink.printLine("Starting with streaming classification of " + fileName + "...");
+        try (Stream<CSVFrame> csvFrames = new CSVImporter(fileName).streamFile()) {
+            FeatureImporter featureImporter = new FeatureImporter();
+            FeatureFrame[] trainingFrames = new FeatureFrame[TRAINING_FRAME_AMOUNT];
+            // With a calibration profile every frame is classified right away
+            FacialExpressionDescriptor descriptor = loadCalibrationProfile();
+            ClassificationContext context = descriptor == null ? null : new ClassificationContext(descriptor);
+            TemporalFusion fusion = createTemporalFusion();
+            ClassificationResult result = new ClassificationResult();
+            long frameCount = 0;
+
+            Iterator<CSVFrame> iterator = csvFrames.iterator();
+            while (iterator.hasNext()) {
+                FeatureFrame featureFrame = featureImporter.convert(iterator.next());
+                if (descriptor == null) {
+                    trainingFrames[(int) frameCount++] = featureFrame;
+                    if (frameCount == TRAINING_FRAME_AMOUNT) {
+                        // The training frames can be classified as soon as the descriptor exists
+                        descriptor = new FacialExpressionDescriptor(trainingFrames);
+                        saveCalibrationProfile(descriptor);
+                        context = new ClassificationContext(descriptor);
+                        for (int i = 0; i < TRAINING_FRAME_AMOUNT; i++) {
+                            reportStreamedFrame(context, trainingFrames[i], i, fusion, result, consumer);
+                            trainingFrames[i] = null;
+                        }
+                    }
+                } else {
+                    reportStreamedFrame(context, featureFrame, frameCount++, fusion, result, consumer);
+                }
+            }
+
+            if (descriptor == null) {
+                throw new RuntimeException("The file " + fileName + " has only " + frameCount + " frames. At least "
+                        + TRAINING_FRAME_AMOUNT + " frames are needed to build a descriptor.");
+            }
+            sink.printLine("Classification done!");
+            sink.flush();
+            return frameCount;
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private void reportStreamedFrame(ClassificationContext context, FeatureFrame frame, long i, TemporalFusion fusion,
+                                     ClassificationResult result, Consumer<ClassificationResult> consumer) {
+        classifyFrame(context, frame, fusion, result, false);
+        sink.printResult(result, i);
+        if (consumer != null) {
+            consumer.accept(result);
+        }
+    }
+
+    /**
+     * Classifies a frame with the engine of this classifier and fuses it with the previous frames if requested.
+     * The BITMASK engine accumulates in the reused buffers of the context, the LIST engine builds a Measure.
+     *
+     * @param context the context of the current thread, holding the descriptor
+     * @param frame The filtered, merged and normalized FeatureFrame to classify
+     * @param fusion the fusion of the previous frames, null to classify the frame on its own
+     * @param result the holder to write the classification into
+     * @param keepMeasure true to return the measure of the frame
+     * @return the measure of the frame, fused if requested. Null if the measure is not kept
+     */
+    private Measure classifyFrame(ClassificationContext context, FeatureFrame frame, TemporalFusion fusion, ClassificationResult result,
+                                  boolean keepMeasure) {
+        if (engine == DempsterHandler.Engine.BITMASK) {
+            BitmaskMeasure measure = context.combineFrame(frame);
+            if (fusion != null) {
+                measure = fusion.push(measure);
+            }
+            ClassificationContext.summarize(measure, result);
+            return keepMeasure ? toMeasure(measure) : null;
+        }
+        Measure emotion = classifyFrame(frame, context.getDescriptor(), engine);
+        if (fusion != null) {
+            emotion = fusion.push(emotion);
+        }
+        summarize(emotion, result);
+        return keepMeasure ? toMeasure(emotion) : null;
+    }
+
+    /**
+     * Classifies a frame of a FrameStore or CSVFeatureView with the BITMASK engine and fuses it with the previous frames if requested.
+     *
+     * @param context the context of the current thread, holding the descriptor
+     * @param features the frames of the file
+     * @param frame index of the frame to classify
+     * @param fusion the fusion of the previous frames, null to classify the frame on its own
+     * @param result the holder to write the classification into
+     * @param keepMeasure true to return the measure of the frame
+     * @return the measure of the frame, fused if requested. Null if the measure is not kept
+     */
+    private static Measure classifyFrame(ClassificationContext context, FeatureColumns features, int frame, TemporalFusion fusion,
+                                         ClassificationResult result, boolean keepMeasure) {
+        BitmaskMeasure measure = context.combineFrame(features, frame);
+        if (fusion != null) {
+            measure = fusion.push(measure);
+        }
+        ClassificationContext.summarize(measure, result);
+        return keepMeasure ? toMeasure(measure) : null;
+    }
+
+    /**
+     * @param measure the accumulated measure of a frame, null if no feature could be measured
+     * @return a Measure with the same entries, a vacuous one if no feature could be measured
+     */
+    private static Measure toMeasure(BitmaskMeasure measure) {
+        return measure == null ? new Measure(FrameOfDiscernment.EMOTIONS) : measure.toMeasure(FrameOfDiscernment.EMOTIONS);
+    }
+
+    /**
+     * @param emotion the accumulated measure of a frame, null if no feature could be measured
+     * @return the measure, a vacuous one if no feature could be measured
+     */
+    private static Measure toMeasure(Measure emotion) {
+        return emotion == null ? new Measure(FrameOfDiscernment.EMOTIONS) : emotion;
+    }
+
     /**
      * Uses the Dempster-Shaefer implementation provided from the excerise to classify a frame into an emotion.
      *
      * @param frame The filtered, merged and normalized FeatureFrame to classify
      * @param descriptor the descriptor, trained with the first n balanced sets of frames.
+     * @param engine the implementation used for accumulating the measures
      * @return The best measure as a result of the dempster implementation. This will be the classified frame.
+     * Null if no feature could be measured
      */
-    private Measure classifyFrame(FeatureFrame frame, FacialExpressionDescriptor descriptor) {
+    static Measure classifyFrame(FeatureFrame frame, FacialExpressionDescriptor descriptor, DempsterHandler.Engine engine) {
         // We have neutral, sadness, fear, joy, disgust, (5)
-        DempsterHandler dempsterHandler = new DempsterHandler(5);
+        DempsterHandler dempsterHandler = new DempsterHandler(FrameOfDiscernment.EMOTIONS, engine);
 
         // There are 10 features per frame
         // fob, lea,lbd, rea, rbd, hnc, vnc, lcw, rcw, ma
@@ -71,6 +539,7 @@ public class EmotionClassifier {
         // The measurements (if present) are tracked within the frame
         FacialExpression[] expressions = descriptor.describeFrame(frame);
 
+        boolean measured = false;
         for (FacialExpression expression : expressions) {
             // One measure example is
             // Mouth Aperture (MA) = "large"
@@ -82,8 +551,13 @@ public class EmotionClassifier {
             if (expression != null) {
                 Measure measure = dempsterHandler.addMeasure();
                 measure.addEntry(expression.getMatchingBinaries(), expression.getConfidence());
+                measured = true;
             }
         }
+        // Without any measured feature there is nothing to accumulate, like in ClassificationContext.combineFrame
+        if (!measured) {
+            return null;
+        }
 
         // This can be done for multiple measures
         // They have to be accumulated
@@ -94,18 +568,114 @@ public class EmotionClassifier {
     }
 
     /**
-     * Prints a classified emotion to the systems standard output stream (console).
-     * Every frame is printed on a new line. The main interest of a classification is the measured emotion.
+     * Writes the winner of a measure with its belief, plausability and doubt into a result, like ClassificationContext does.
+     *
+     * @param emotion the result of the dempster shaefer implementation, null if no feature could be measured
+     * @param result the holder to write the classification into. If there is no winner the winner index is -1
+     */
+    static void summarize(Measure emotion, ClassificationResult result) {
+        if (emotion == null) {
+            result.set(-1, 0.0, 0.0, 1.0, 0.0);
+        } else {
+            MeasureSummary.summarizeWinner(emotion, result);
+        }
+    }
+
+    /**
+     * Formats a classified frame as one line, e.g. "1. NEUTRAL = Plausability: 0.9995, Belief: 0.7728, Doubt: 0.0005".
+     *
+     * @param result the classification of the frame
+     * @param i the index of the frame
+     * @return the line without line break
+     */
+    static String formatClassificationResult(ClassificationResult result, long i) {
+        return (i+1) + ". " + result.getEmotion()
+                + " = Plausability: " + MathUtils.round(result.getPlausability())
+                + ", Belief: " + MathUtils.round(result.getBelief())
+                + ", Doubt: " + MathUtils.round(result.getDoubt());
+    }
+
+    /**
+     * Formats a classified emotion as one line, see <code>formatClassificationResult(ClassificationResult, long)</code>.
      *
      * @param emotion the result of the dempster shaefer implementation
-     * @param i the index of the frame for cleaner visual appearance
-     */
-    private void printClassificationResult(Measure emotion, int i) {
-        MeasureEntry winner = emotion.getWinner();
-        System.out.println((i+1) + ". " + winner.getEmotion()
-                + " = Plausability: " + MathUtils.round(emotion.calculatePlausability(winner.getEmotionIndex()))
-                + ", Belief: " + MathUtils.round(emotion.calculateBelief(winner.getEmotionIndex()))
-                + ", Doubt: " + MathUtils.round(emotion.calculateDoubt(winner.getEmotionIndex())));
+     * @param i the index of the frame
+     * @return the line without line break
+     */
+    static String formatClassificationResult(Measure emotion, long i) {
+        ClassificationResult result = new ClassificationResult();
+        summarize(emotion, result);
+        return formatClassificationResult(result, i);
+    }
+
+    /**
+     * Classifies the frame with the given index of a file, from FeatureFrames or from the columns of a FeatureColumns.
+     * Returns the measure of the frame if the measures of the file are kept, null otherwise.
+     */
+    private interface FrameClassifier {
+        Measure classify(ClassificationContext context, int frame, TemporalFusion fusion, ClassificationResult result);
+    }
+
+    /**
+     * The classification of every frame of a file, with the measures if they were kept.
+     */
+    private static final class FileClassification {
+
+        private final ClassificationResult[] results;
+        private final Measure[] measures;
+
+        private FileClassification(ClassificationResult[] results, Measure[] measures) {
+            this.results = results;
+            this.measures = measures;
+        }
+    }
+
+    /**
+     * Classifies a range of frames, splitting it in halves until a chunk is small enough to be classified by one thread.
+     */
+    private class FrameRangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private static final int CHUNK_SIZE = 1024;
+
+        private final FrameClassifier frames;
+        private final ThreadLocal<ClassificationContext> contexts;
+        private final ClassificationResult[] results;
+        private final Measure[] measures;
+        private final String[] lines;
+        private final int from, to;
+
+        private FrameRangeTask(FrameClassifier frames, ThreadLocal<ClassificationContext> contexts, ClassificationResult[] results,
+                               Measure[] measures, String[] lines, int from, int to) {
+            this.frames = frames;
+            this.contexts = contexts;
+            this.results = results;
+            this.measures = measures;
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                ClassificationContext context = contexts.get();
+                for (int i = from; i < to; i++) {
+                    results[i] = new ClassificationResult();
+                    Measure measure = frames.classify(context, i, null, results[i]);
+                    if (measures != null) {
+                        measures[i] = measure;
+                    }
+                    if (lines != null) {
+                        lines[i] = formatClassificationResult(results[i], i);
+                    }
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FrameRangeTask(frames, contexts, results, measures, lines, from, middle),
+                        new FrameRangeTask(frames, contexts, results, measures, lines, middle, to));
+            }
+        }
     }
 
 }
@@ -1,7 +1,16 @@
 package de.emotreco.main;
 
+import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.main.dempster.Measure;
+
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 /**
  * The main class of the emotion-recognition application.
@@ -13,7 +22,9 @@ public class EmotionRecognitionMain {
     /**
      * Main entry point of the application. Handles program arguments and calls EmotionClassifier.java.
      *
-     * @param args either the path to one csv file or "--all" to check all files in ./data/*.csv
+     * @param args either the path to one csv file, "--stream", "--offheap" or "--live" followed by the path to one csv file,
+     *             "--binary" followed by the path to one csv file and the path of the binary result file
+     *             or "--all" to check all files in ./data/*.csv, optionally followed by the amount of threads to use
      */
     public static void main(String[] args) {
         if (args.length == 0) {
@@ -21,7 +32,9 @@ public class EmotionRecognitionMain {
             return;
         }
 
-        EmotionClassifier classifier = new EmotionClassifier();
+        // The console output is written by a background thread, so printing does not slow down the classification
+        AsyncResultSink sink = new AsyncResultSink(System.out);
+        EmotionClassifier classifier = new EmotionClassifier(sink);
         try {
             if (args[0].equals("--all")) {
                 File dataFolder = new File(dataDirectoryPath);
@@ -38,23 +51,78 @@ public class EmotionRecognitionMain {
                     }
                 });
 
-                System.out.println("Testing all csv files from " + dataDirectoryPath);
-                for (File file : patternFiles) {
-                    classifier.classifyFile(file.getAbsolutePath());
-                }
+                Arrays.sort(patternFiles);
+
+                // Optional amount of threads, all cores by default
+                int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+                System.out.println("Testing all csv files from " + dataDirectoryPath + " with " + threads + " threads");
+                new BatchClassifier(threads).classifyFiles(patternFiles);
+            } else if (args[0].equals("--live") && args.length > 1) {
+                replayLive(args[1], args.length > 2 ? Integer.parseInt(args[2]) : 0, sink);
+            } else if (args[0].equals("--binary") && args.length > 2) {
+                writeBinary(args[1], args[2]);
+            } else if (args[0].equals("--stream") && args.length > 1) {
+                classifier.classifyFileStreaming(args[1], null);
+            } else if (args[0].equals("--offheap") && args.length > 1) {
+                classifier.setOffHeapColumns(true);
+                classifier.classifyFileResults(args[1]);
             } else {
                 String fileName = args[0];
-                classifier.classifyFile(fileName);
+                classifier.classifyFileResults(fileName);
             }
         } catch (Exception e) {
+            sink.flush();
             e.printStackTrace();
             printUsage();
+        } finally {
+            sink.close();
+        }
+    }
+
+    /**
+     * Pushes the frames of a file one by one into a LiveEmotionClassifier, as a camera pipeline would do.
+     *
+     * @param fileName path to the .csv file with the frames in it
+     * @param slidingWindow size of the sliding calibration window, 0 to keep the calibration of the first frames
+     * @param sink receives the classified frames
+     * @throws IOException When the file could not be accessed.
+     */
+    private static void replayLive(String fileName, int slidingWindow, ResultSink sink) throws IOException {
+        LiveEmotionClassifier classifier = slidingWindow > 0 ? new LiveEmotionClassifier(slidingWindow, true) : new LiveEmotionClassifier();
+        try (Stream<CSVFrame> csvFrames = new CSVImporter(fileName).streamFile()) {
+            Iterator<CSVFrame> iterator = csvFrames.iterator();
+            while (iterator.hasNext()) {
+                Measure emotion = classifier.push(iterator.next());
+                if (emotion != null) {
+                    sink.printLine(EmotionClassifier.formatClassificationResult(emotion, classifier.getFrameCount() - 1));
+                }
+            }
+        }
+        sink.printLine("Maximal latency per frame: " + classifier.getMaxLatencyNanos() / 1_000 + " microseconds");
+    }
+
+    /**
+     * Classifies a file and stores the results in a binary file instead of printing them, see BinaryResultWriter.
+     *
+     * @param fileName path to the .csv file with the frames in it
+     * @param resultFileName path of the binary file to write
+     * @throws IOException When the binary file could not be created.
+     */
+    private static void writeBinary(String fileName, String resultFileName) throws IOException {
+        try (BinaryResultWriter writer = new BinaryResultWriter(Paths.get(resultFileName))) {
+            new EmotionClassifier(writer).classifyFileResults(fileName);
+            System.out.println("Wrote " + writer.getRecordCount() + " results to " + resultFileName);
         }
     }
 
     private static void printUsage() {
         System.out.println("Usage: \n\n" +
                 "java -jar emotion-recognition.jar data/emo_muster_1_1.csv\n\tScans the file at the specified path.\n\n" +
-                "java -jar emotion-recognition.jar --all\n\tScans all .csv files which are in the directory data.");
+                "java -jar emotion-recognition.jar --stream data/emo_muster_1_1.csv\n\tScans the file at the specified path frame by frame without loading it completely.\n\n" +
+                "java -jar emotion-recognition.jar --offheap data/emo_muster_1_1.csv\n\tScans the file at the specified path, keeping its columns outside of the heap.\n\n" +
+                "java -jar emotion-recognition.jar --binary data/emo_muster_1_1.csv results.bin\n\tScans the file at the specified path and stores the results in a binary file.\n\n" +
+                "java -jar emotion-recognition.jar --live data/emo_muster_1_1.csv [window]\n\tReplays the file frame by frame like a live stream. The calibration follows the latest frames if a window size is given.\n\n" +
+                "java -jar emotion-recognition.jar --all [threads]\n\tScans all .csv files which are in the directory data.\n\tThe files are scanned in parallel, by default with one thread per core.");
     }
 }
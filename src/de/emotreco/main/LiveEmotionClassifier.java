@@ -0,0 +1,228 @@
+package de.emotreco.main;
+
+import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.facialexpressionmodel.CalibrationStatistics;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.main.dempster.BitmaskMeasure;
+import de.emotreco.main.dempster.FrameOfDiscernment;
+import de.emotreco.main.dempster.Measure;
+
+import static de.emotreco.facialexpressionmodel.FacialExpressionDescriptor.TRAINING_FRAME_AMOUNT;
+
+/**
+ * Push based classifier for live feature streams, e.g. behind a camera pipeline. Frames are handed in one at a time
+ * and every frame is classified as soon as it arrives, without reprocessing earlier frames.
+ *
+ * The first frames calibrate the descriptor, like the first TRAINING_FRAME_AMOUNT frames of a file,
+ * unless the classifier is created with an already calibrated descriptor.
+ * Optionally the calibration keeps following a sliding window of the latest frames, so drift in lighting or face distance
+ * is tracked. The window keeps CalibrationStatistics which are updated in constant time per frame.
+ * Every frame is classified with the same ClassificationContext, only the descriptor is replaced when the calibration moved.
+ * With a latency budget the rebuild of the descriptor and the classification are only done if they fit into the budget
+ * of the current frame, see setLatencyBudgetNanos.
+ * A live classifier is not thread safe.
+ */
+public class LiveEmotionClassifier {
+
+    private static final int FEATURE_AMOUNT = FeatureImporter.FEATURE_COLUMN_NAMES.length;
+
+    private final FeatureImporter featureImporter = new FeatureImporter();
+    private final boolean sliding;
+    // The latest frames, frame n is stored at n % length
+    private final FeatureFrame[] window;
+    // Statistics of the frames within the window
+    private final CalibrationStatistics statistics = new CalibrationStatistics();
+    private long frameCount;
+    // Classifies the frames once the descriptor is calibrated
+    private ClassificationContext context;
+    // True if the sliding window changed since the descriptor was built
+    private boolean descriptorOutdated;
+
+    private long latencyBudgetNanos = Long.MAX_VALUE;
+    private long lastLatencyNanos, maxLatencyNanos, framesOverBudget, framesSkipped, rebuildsDeferred;
+    // Expected duration of rebuilding the descriptor and of classifying a frame, the last measured one
+    private long rebuildNanos, classificationNanos;
+    private Measure lastEmotion;
+
+    /**
+     * Create a classifier which calibrates with the first TRAINING_FRAME_AMOUNT frames and keeps this calibration,
+     * like EmotionClassifier does for a file.
+     */
+    public LiveEmotionClassifier() {
+        this(TRAINING_FRAME_AMOUNT, false);
+    }
+
+    /**
+     * Create a classifier with a custom calibration.
+     *
+     * @param calibrationWindow amount of frames the calibration is based on
+     * @param sliding true to keep calibrating with the latest frames, false to keep the calibration of the first frames
+     */
+    public LiveEmotionClassifier(int calibrationWindow, boolean sliding) {
+        if (calibrationWindow < 1) {
+            throw new IllegalArgumentException("The calibration needs at least one frame, got " + calibrationWindow + ".");
+        }
+        this.window = new FeatureFrame[calibrationWindow];
+        this.sliding = sliding;
+    }
+
+    /**
+     * Create a classifier which is already calibrated, e.g. with a descriptor loaded by CalibrationProfiles.
+     * Every frame is classified from the first one on and the calibration is kept.
+     *
+     * @param descriptor the calibrated descriptor
+     */
+    public LiveEmotionClassifier(FacialExpressionDescriptor descriptor) {
+        this(TRAINING_FRAME_AMOUNT, false);
+        this.context = new ClassificationContext(descriptor);
+    }
+
+    /**
+     * Classify the next frame of the stream.
+     *
+     * @param csvFrame the next frame
+     * @return the measured emotion, the one of the last classified frame if this frame was skipped.
+     * A vacuous measure if no feature of the frame could be measured. Null while the first frames are used for calibration
+     */
+    public Measure push(CSVFrame csvFrame) {
+        long start = System.nanoTime();
+        FeatureFrame featureFrame = featureImporter.convert(csvFrame);
+        long frame = frameCount++;
+
+        Measure emotion = null;
+        if (context == null) {
+            addToWindow(featureFrame, frame);
+            if (frameCount == window.length) {
+                context = new ClassificationContext(new FacialExpressionDescriptor(averageOfWindow()));
+            }
+        } else {
+            if (sliding) {
+                statistics.remove(window[(int) (frame % window.length)]);
+                addToWindow(featureFrame, frame);
+                descriptorOutdated = true;
+            }
+            if (descriptorOutdated) {
+                if (fitsIntoBudget(start, rebuildNanos)) {
+                    long rebuildStart = System.nanoTime();
+                    context.setDescriptor(statistics.toDescriptor());
+                    descriptorOutdated = false;
+                    rebuildNanos = System.nanoTime() - rebuildStart;
+                } else {
+                    // Classify with the previous calibration, a later frame catches up with the window
+                    rebuildsDeferred++;
+                    rebuildNanos = rebuildNanos / 2;
+                }
+            }
+            if (lastEmotion == null || fitsIntoBudget(start, classificationNanos)) {
+                long classificationStart = System.nanoTime();
+                BitmaskMeasure measure = context.combineFrame(featureFrame);
+                // Without any measured feature there is no evidence, all of the probability stays on omega
+                emotion = measure == null ? new Measure(FrameOfDiscernment.EMOTIONS) : measure.toMeasure(FrameOfDiscernment.EMOTIONS);
+                lastEmotion = emotion;
+                classificationNanos = System.nanoTime() - classificationStart;
+            } else {
+                emotion = lastEmotion;
+                framesSkipped++;
+                classificationNanos = classificationNanos / 2;
+            }
+        }
+
+        lastLatencyNanos = System.nanoTime() - start;
+        maxLatencyNanos = Math.max(maxLatencyNanos, lastLatencyNanos);
+        if (lastLatencyNanos > latencyBudgetNanos) {
+            framesOverBudget++;
+        }
+        return emotion;
+    }
+
+    /**
+     * Check whether a step still fits into the budget of the current frame.
+     *
+     * @param start the time the frame was pushed
+     * @param expectedNanos the time the step took the last time it was done
+     * @return true if the time spent on the frame plus the step stays within the budget
+     */
+    private boolean fitsIntoBudget(long start, long expectedNanos) {
+        return expectedNanos <= latencyBudgetNanos - (System.nanoTime() - start);
+    }
+
+    private void addToWindow(FeatureFrame featureFrame, long frame) {
+        window[(int) (frame % window.length)] = featureFrame;
+        statistics.add(featureFrame);
+    }
+
+    /**
+     * Calculate the averages of the first frames in the same float arithmetic as the FacialExpressionDescriptor does
+     * for a file, so the results match those of EmotionClassifier.
+     * Missing features count as 0.
+     *
+     * @return the average of every feature
+     */
+    private float[] averageOfWindow() {
+        float[] average = new float[FEATURE_AMOUNT];
+        for (int i = 0; i < FEATURE_AMOUNT; i++) {
+            for (FeatureFrame featureFrame : window) {
+                if (featureFrame.hasFeature(i)) {
+                    average[i] += featureFrame.getFeature(i);
+                }
+            }
+            average[i] = average[i] / window.length;
+        }
+        return average;
+    }
+
+    /**
+     * Every step of a frame is only done if the time already spent on the frame plus the time the step took last time
+     * fits into the budget. If rebuilding the descriptor does not fit, the frame is classified with the previous calibration
+     * and a later frame rebuilds it, see getRebuildsDeferred. If the classification does not fit either, the frame is only
+     * added to the calibration window and the result of the last classified frame is returned, see getFramesSkipped.
+     * The expected time of a step is halved whenever it is left out, so a single slow frame does not leave out the step
+     * for long. Frames taking longer than the budget anyway are counted, see getFramesOverBudget.
+     *
+     * @param latencyBudgetNanos the time a single push may take in nanoseconds, Long.MAX_VALUE (default) to classify every frame
+     */
+    public void setLatencyBudgetNanos(long latencyBudgetNanos) {
+        this.latencyBudgetNanos = latencyBudgetNanos;
+    }
+
+    /**
+     * Check whether enough frames were pushed to classify frames.
+     *
+     * @return true once the calibration frames were seen
+     */
+    public boolean isCalibrated() {
+        return context != null;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    public long getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    /**
+     * @return the amount of frames which were not classified because the classification did not fit into their budget
+     */
+    public long getFramesSkipped() {
+        return framesSkipped;
+    }
+
+    /**
+     * @return the amount of frames which were classified with an outdated descriptor because the rebuild did not fit into their budget
+     */
+    public long getRebuildsDeferred() {
+        return rebuildsDeferred;
+    }
+}
@@ -0,0 +1,28 @@
+package de.emotreco.main;
+
+import java.io.PrintStream;
+
+/**
+ * Prints every line directly to a stream on the calling thread, e.g. the console or a buffer per file.
+ */
+public class PrintStreamResultSink implements ResultSink {
+
+    private final PrintStream out;
+
+    /**
+     * @param out the stream to print to
+     */
+    public PrintStreamResultSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void printLine(String line) {
+        out.println(line);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
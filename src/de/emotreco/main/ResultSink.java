@@ -0,0 +1,68 @@
+package de.emotreco.main;
+
+/**
+ * Receives the output of a classification: progress messages and the classified frames in frame order.
+ * A sink decides when and whether the output is formatted and written, see PrintStreamResultSink, AsyncResultSink
+ * and BinaryResultWriter.
+ */
+public interface ResultSink extends AutoCloseable {
+
+    /**
+     * A sink discarding everything. Results are not even formatted, so only the classification itself costs time.
+     */
+    ResultSink SILENT = new ResultSink() {
+        @Override
+        public void printLine(String line) {
+        }
+
+        @Override
+        public void printResult(ClassificationResult result, long index) {
+        }
+
+        @Override
+        public boolean acceptsFormattedResults() {
+            return false;
+        }
+    };
+
+    /**
+     * Prints one line, e.g. a progress message or an already formatted result.
+     *
+     * @param line the line without line break
+     */
+    void printLine(String line);
+
+    /**
+     * Prints a classified frame, by default formatted with <code>EmotionClassifier.formatClassificationResult</code>.
+     * The holder is reused for the next frame once this method returns, a sink formatting it later has to copy it.
+     *
+     * @param result the classification of the frame
+     * @param index the index of the frame
+     */
+    default void printResult(ClassificationResult result, long index) {
+        printLine(EmotionClassifier.formatClassificationResult(result, index));
+    }
+
+    /**
+     * Tells if results may be formatted in advance, e.g. by several threads, and handed over with <code>printLine</code>.
+     *
+     * @return false if the sink needs the results or discards them, so formatting them would be wasted
+     */
+    default boolean acceptsFormattedResults() {
+        return true;
+    }
+
+    /**
+     * Waits until everything printed so far is written.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Writes everything printed so far and releases the sink. The underlying stream is not closed.
+     */
+    @Override
+    default void close() {
+        flush();
+    }
+}
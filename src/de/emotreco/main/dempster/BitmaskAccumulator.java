@@ -0,0 +1,91 @@
+package de.emotreco.main.dempster;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates {@link BitmaskMeasure}s in the same order as the {@link DempsterHandler}:
+ * the first two measures of the queue are combined and the result is appended to its end.
+ * All measures are kept in a pool of slots which is reused after {@link #reset()}, so an accumulator
+ * that has seen the largest number of measures once does not allocate anymore.
+ * An accumulator is not thread safe.
+ */
+public final class BitmaskAccumulator {
+
+	/** size of the measures, should match the number of alternatives */
+	private final int size;
+
+	/** pool of measures. The queue of not yet accumulated measures is slots[head] until slots[used - 1] */
+	private BitmaskMeasure[] slots = new BitmaskMeasure[16];
+
+	private int head, used;
+
+	/** plans for accumulating all measures at once, null to always combine the measures one by one */
+	private CombinationPlanCache planCache;
+
+	public BitmaskAccumulator(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Lets the accumulator use cached plans, see {@link CombinationPlanCache}. The results stay identical.
+	 * @param planCache cache of the same size, null (default) to combine the measures one by one
+	 */
+	public void setPlanCache(CombinationPlanCache planCache) {
+		if (planCache != null && planCache.getSize() != size) {
+			throw new IllegalArgumentException("The plan cache is for measures of size " + planCache.getSize() + ", not " + size + ".");
+		}
+		this.planCache = planCache;
+	}
+
+	/**
+	 * Drops all measures. The slots are kept for reuse.
+	 */
+	public void reset() {
+		head = 0;
+		used = 0;
+	}
+
+	/**
+	 * Adds an empty {@link BitmaskMeasure} and returns it for further editing.
+	 * @return the added measure, only containing the omega-entry
+	 */
+	public BitmaskMeasure addMeasure() {
+		BitmaskMeasure measure = nextSlot();
+		measure.reset();
+		return measure;
+	}
+
+	/**
+	 * Accumulates all measures which were added since the last reset.
+	 * @return the final measure or null if no measure was added
+	 */
+	public BitmaskMeasure accumulateAllMeasures() {
+		if (planCache != null && used - head >= 2) {
+			// Reserve the slots for the results of all combinations
+			int first = used;
+			for (int i = head + 1; i < first; i++) {
+				nextSlot();
+			}
+			int combinations = planCache.accumulate(slots, head, first);
+			head += 2 * combinations;
+			used = first + combinations;
+		}
+		while (used - head >= 2) {
+			BitmaskMeasure measure1 = slots[head];
+			BitmaskMeasure measure2 = slots[head + 1];
+			head += 2;
+			nextSlot().combine(measure1, measure2);
+		}
+		return used > head ? slots[head] : null;
+	}
+
+	private BitmaskMeasure nextSlot() {
+		if (used == slots.length) {
+			slots = Arrays.copyOf(slots, used * 2);
+		}
+		if (slots[used] == null) {
+			slots[used] = new BitmaskMeasure(size);
+		}
+		return slots[used++];
+	}
+}
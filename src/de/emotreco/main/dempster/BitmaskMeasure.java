@@ -0,0 +1,357 @@
+package de.emotreco.main.dempster;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Primitive counterpart of a {@link Measure}. Every focal set is a bitmask (bit i is set if alternative i is part of the set)
+ * and the probabilities live in a parallel double array, so no boxed value lists have to be walked or allocated.
+ * Like in {@link Measure} the entry at index 0 is the omega-remainder and entries keep their insertion order,
+ * which makes both representations add up their probabilities in exactly the same order.
+ */
+public final class BitmaskMeasure {
+
+	/** maximum number of alternatives that fit into a bitmask */
+	public static final int MAX_SIZE = 64;
+
+	/** size of the measure, should match the number of alternatives */
+	private final int size;
+
+	/** bitmask with all alternatives set, identifying the omega-entry */
+	private final long omegaMask;
+
+	/** focal sets of the entries, index 0 is the omega-entry */
+	private long[] masks = new long[8];
+
+	/** probabilities of the entries, parallel to masks */
+	private double[] probabilities = new double[8];
+
+	/** number of used entries */
+	private int count;
+
+	/** number of entries from which on focal sets are found through the index instead of a linear search */
+	private static final int INDEX_THRESHOLD = 16;
+
+	/** open addressing hash table of the entries, holding entry index + 1 and 0 for a free bucket */
+	private int[] index;
+
+	/** whether the index holds all entries, it is rebuilt lazily after the entries were replaced */
+	private boolean indexed;
+
+	/** conflict of the combinations this measure resulted from, see {@link Measure#getConflict()} */
+	private double conflict;
+
+	/** focal sets and unnormalized probabilities of the products of the last combination */
+	private long[] productMasks = new long[0];
+	private double[] products = new double[0];
+
+	public BitmaskMeasure(int size) {
+		if (size < 1 || size > MAX_SIZE) {
+			throw new IllegalArgumentException("A bitmask measure supports 1 to " + MAX_SIZE + " alternatives, got " + size + ".");
+		}
+		this.size = size;
+		this.omegaMask = size == MAX_SIZE ? -1L : (1L << size) - 1;
+		reset();
+	}
+
+	/**
+	 * Removes all entries except the omega-entry, which is set back to a probability of 1.
+	 * The allocated arrays are kept, so a measure can be reused without producing garbage.
+	 */
+	public void reset() {
+		masks[0] = omegaMask;
+		probabilities[0] = 1.0d;
+		count = 1;
+		indexed = false;
+		conflict = 0.0d;
+	}
+
+	/**
+	 * Add an entry for the Measure by submitting the focal set and the probability of the entry.
+	 * Behaves like {@link Measure#addEntry(List, double)}: an existing entry is increased, the omega-entry decreased.
+	 * @param mask focal set, bit i represents alternative i
+	 * @param probability probability of the entry
+	 */
+	public void addEntry(long mask, double probability) {
+		int existing = find(mask);
+		if (existing >= 0) {
+			probabilities[existing] = probabilities[existing] + probability;
+			probabilities[0] = probabilities[0] - probability;
+			return;
+		}
+		if (count == masks.length) {
+			masks = Arrays.copyOf(masks, count * 2);
+			probabilities = Arrays.copyOf(probabilities, count * 2);
+		}
+		masks[count] = mask;
+		probabilities[count] = probability;
+		count++;
+		probabilities[0] = probabilities[0] - probability;
+		if (indexed) {
+			if (count * 2 > index.length) {
+				buildIndex();
+			} else {
+				insertIntoIndex(count - 1);
+			}
+		}
+	}
+
+	/**
+	 * Finds the entry of a focal set. Small measures are searched linearly, large ones through the index, so the cost
+	 * of adding an entry does not grow with the number of focal sets.
+	 * @param mask focal set
+	 * @return index of the entry, -1 if there is none
+	 */
+	private int find(long mask) {
+		if (count <= INDEX_THRESHOLD) {
+			for (int i = 0; i < count; i++) {
+				if (masks[i] == mask) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		if (!indexed) {
+			buildIndex();
+		}
+		for (int bucket = bucket(mask); index[bucket] != 0; bucket = (bucket + 1) & (index.length - 1)) {
+			if (masks[index[bucket] - 1] == mask) {
+				return index[bucket] - 1;
+			}
+		}
+		return -1;
+	}
+
+	private void buildIndex() {
+		int buckets = Integer.highestOneBit(Math.max(count, masks.length) * 4 - 1);
+		if (index == null || index.length < buckets) {
+			index = new int[buckets];
+		} else {
+			Arrays.fill(index, 0);
+		}
+		for (int i = 0; i < count; i++) {
+			insertIntoIndex(i);
+		}
+		indexed = true;
+	}
+
+	private void insertIntoIndex(int entry) {
+		int bucket = bucket(masks[entry]);
+		while (index[bucket] != 0) {
+			bucket = (bucket + 1) & (index.length - 1);
+		}
+		index[bucket] = entry + 1;
+	}
+
+	private int bucket(long mask) {
+		return (int) ((mask * 0x9E3779B97F4A7C15L) >>> 40) & (index.length - 1);
+	}
+
+	/**
+	 * Replaces the content of this measure with the accumulation of 2 measures, taking conflicts into account.
+	 * Mirrors the list based accumulation of the {@link DempsterHandler}: if the conflict exceeds 0.99 only the omega-entry is left.
+	 * The intersections are built in a single pass which sums up the conflict and remembers the other products, which are
+	 * normalized afterwards. As long as no probability is negative the conflict can only grow, so the pass stops as soon as
+	 * the conflict exceeds the limit.
+	 * @param measure1 first measure
+	 * @param measure2 second measure
+	 */
+	void combine(BitmaskMeasure measure1, BitmaskMeasure measure2) {
+		reset();
+
+		int capacity = measure1.count * measure2.count;
+		if (products.length < capacity) {
+			productMasks = new long[capacity];
+			products = new double[capacity];
+		}
+		boolean monotone = measure1.isNonNegative() && measure2.isNonNegative();
+
+		double conflict = 0.0d;
+		int productCount = 0;
+		for (int i = 0; i < measure1.count; i++) {
+			for (int j = 0; j < measure2.count; j++) {
+				long intersection = measure1.masks[i] & measure2.masks[j];
+				if (intersection == 0) {
+					conflict = conflict + (measure1.probabilities[i] * measure2.probabilities[j]);
+				} else if (intersection != omegaMask) {
+					productMasks[productCount] = intersection;
+					products[productCount++] = measure1.probabilities[i] * measure2.probabilities[j];
+				}
+			}
+			if (monotone && conflict > 0.99d) {
+				break;
+			}
+		}
+
+		if (conflict <= 0.99d) {
+			double correction = 1.0d / (1.0d - conflict);
+			for (int product = 0; product < productCount; product++) {
+				double value = products[product] * correction;
+				if (value > 0.0d) {
+					addEntry(productMasks[product], value);
+				}
+			}
+		}
+		this.conflict = Measure.accumulateConflict(measure1.conflict, measure2.conflict, conflict);
+	}
+
+	private boolean isNonNegative() {
+		for (int i = 0; i < count; i++) {
+			if (!(probabilities[i] >= 0.0d)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Discounts this measure by the reliability of its source: every focal set keeps only the given share of its
+	 * probability, the rest is moved to the omega-entry (Shafer's discounting).
+	 * @param reliability between 0 (the measure is ignored) and 1 (the measure stays unchanged)
+	 */
+	void discount(double reliability) {
+		for (int i = 1; i < count; i++) {
+			probabilities[i] = probabilities[i] * reliability;
+		}
+		probabilities[0] = 1.0d - reliability * (1.0d - probabilities[0]);
+	}
+
+	/**
+	 * Replaces the content of this measure with a copy of another bitmask measure.
+	 * @param measure the measure to copy, has to be of the same size
+	 */
+	void copyFrom(BitmaskMeasure measure) {
+		if (masks.length < measure.count) {
+			masks = new long[measure.masks.length];
+			probabilities = new double[measure.masks.length];
+		}
+		System.arraycopy(measure.masks, 0, masks, 0, measure.count);
+		System.arraycopy(measure.probabilities, 0, probabilities, 0, measure.count);
+		count = measure.count;
+		indexed = false;
+		conflict = measure.conflict;
+	}
+
+	/**
+	 * Replaces the content of this measure with the given entries.
+	 * @param masks focal sets of the entries, index 0 is the omega-entry
+	 * @param probabilities probabilities of the entries, starting at offset
+	 * @param offset index of the probability of the omega-entry
+	 * @param count number of entries
+	 * @param conflict conflict of the combinations the entries resulted from
+	 */
+	void set(long[] masks, double[] probabilities, int offset, int count, double conflict) {
+		if (this.masks.length < count) {
+			this.masks = new long[count];
+			this.probabilities = new double[count];
+		}
+		System.arraycopy(masks, 0, this.masks, 0, count);
+		System.arraycopy(probabilities, offset, this.probabilities, 0, count);
+		this.count = count;
+		indexed = false;
+		this.conflict = conflict;
+	}
+
+	/**
+	 * Copies the probabilities of the entries.
+	 * @param target array to copy to
+	 * @param offset index in target for the probability of the omega-entry
+	 * @param count number of entries to copy
+	 */
+	void copyProbabilities(double[] target, int offset, int count) {
+		System.arraycopy(probabilities, 0, target, offset, count);
+	}
+
+	/**
+	 * Replaces the content of this measure with a copy of the entries of a {@link Measure}.
+	 * @param measure the measure to copy, has to be of the same size
+	 */
+	void load(Measure measure) {
+		List<MeasureEntry> entries = measure.getMeasureEntrys();
+		if (masks.length < entries.size()) {
+			masks = new long[entries.size()];
+			probabilities = new double[entries.size()];
+		}
+		for (int i = 0; i < entries.size(); i++) {
+			masks[i] = entries.get(i).getMask();
+			probabilities[i] = entries.get(i).getProbability();
+		}
+		count = entries.size();
+		indexed = false;
+		conflict = measure.getConflict();
+	}
+
+	/**
+	 * Creates a {@link Measure} with the same entries in the same order.
+	 * @return the list based representation of this measure
+	 */
+	public Measure toMeasure() {
+		return toMeasure(FrameOfDiscernment.of(size));
+	}
+
+	/**
+	 * Creates a {@link Measure} over named alternatives with the same entries in the same order.
+	 * @param frame the alternatives, has to be of the same size
+	 * @return the list based representation of this measure
+	 */
+	public Measure toMeasure(FrameOfDiscernment frame) {
+		Measure measure = new Measure(frame, masks, probabilities, count);
+		measure.setConflict(conflict);
+		return measure;
+	}
+
+	/**
+	 * Creates an immutable snapshot with the winner and the belief and plausability of every single alternative.
+	 * @param frame the alternatives, has to be of the same size
+	 * @return the summary of this measure
+	 */
+	public MeasureSummary summarize(FrameOfDiscernment frame) {
+		return new MeasureSummary(this, frame);
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of entries including the omega-entry.
+	 * @return number of entries
+	 */
+	public int getEntryCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the focal set of an entry.
+	 * @param index index of the entry, 0 is the omega-entry
+	 * @return the bitmask of the focal set
+	 */
+	public long getMask(int index) {
+		return masks[index];
+	}
+
+	/**
+	 * Returns the probability of an entry.
+	 * @param index index of the entry, 0 is the omega-entry
+	 * @return the probability of the entry
+	 */
+	public double getProbability(int index) {
+		return probabilities[index];
+	}
+
+	/**
+	 * Returns the conflict of the combinations this measure resulted from, see {@link Measure#getConflict()}.
+	 * @return the conflict between 0 and 1
+	 */
+	public double getConflict() {
+		return conflict;
+	}
+
+	/**
+	 * Returns the bitmask identifying the omega-entry.
+	 * @return mask with a bit set for every alternative
+	 */
+	public long getOmegaMask() {
+		return omegaMask;
+	}
+}
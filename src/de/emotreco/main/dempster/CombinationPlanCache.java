@@ -0,0 +1,392 @@
+package de.emotreco.main.dempster;
+
+import java.util.Arrays;
+
+/**
+ * Caches the structure of accumulations of {@link BitmaskMeasure}s. Per frame every measure holds a single focal set and the
+ * same combinations of focal sets repeat across all frames, only the probabilities change. For such an ordered combination
+ * of focal sets a plan is stored once: which products of two entries are conflicts, into which entry of the result every
+ * other product is added and in which order. Applying a plan only evaluates the products, in exactly the order and with
+ * exactly the operations of {@link BitmaskMeasure#combine(BitmaskMeasure, BitmaskMeasure)}, so the results are identical.
+ *
+ * A plan is only valid while every product is positive and no combination exceeds the conflict limit, because the structure
+ * of the result differs in these cases and the accumulation falls back to combining the remaining measures one by one.
+ *
+ * The cache is set associative with {@link #WAYS} plans per set, the least recently used plan of a set is evicted.
+ * Looking up and applying a cached plan does not allocate. A cache is not thread safe.
+ */
+public final class CombinationPlanCache {
+
+	/** number of plans per set */
+	public static final int WAYS = 4;
+
+	/** default number of cached plans */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/** bits of a key used for the number of measures */
+	private static final int COUNT_BITS = 4;
+
+	/** size of the measures, should match the number of alternatives */
+	private final int size;
+
+	/** bitmask with all alternatives set, identifying the omega-entry */
+	private final long omegaMask;
+
+	/** keys of the cached plans, 0 for an empty way. The ways of set s are at s * WAYS until s * WAYS + WAYS - 1 */
+	private final long[] keys;
+
+	/** the cached plans, parallel to keys */
+	private final Plan[] plans;
+
+	/** time of the last use of every plan, parallel to keys */
+	private final long[] lastUse;
+
+	private final int setMask;
+
+	/** probabilities of all entries of the measures of a plan */
+	private double[] registers = new double[64];
+
+	/** conflict of every measure of the queue of a plan, the input measures first */
+	private double[] queueConflicts = new double[32];
+
+	private long clock, hits, misses, evictions, fallbacks;
+
+	public CombinationPlanCache(int size) {
+		this(size, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param size size of the measures, should match the number of alternatives
+	 * @param capacity maximum number of cached plans, rounded up to a power of two of at least {@link #WAYS}
+	 */
+	public CombinationPlanCache(int size, int capacity) {
+		if (size < 1 || size > BitmaskMeasure.MAX_SIZE) {
+			throw new IllegalArgumentException("A bitmask measure supports 1 to " + BitmaskMeasure.MAX_SIZE + " alternatives, got " + size + ".");
+		}
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The capacity has to be positive, got " + capacity + ".");
+		}
+		this.size = size;
+		this.omegaMask = size == BitmaskMeasure.MAX_SIZE ? -1L : (1L << size) - 1;
+		int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS - 1)) << 1;
+		sets = Math.max(1, Math.min(sets, 1 << 20));
+		this.setMask = sets - 1;
+		this.keys = new long[sets * WAYS];
+		this.plans = new Plan[sets * WAYS];
+		this.lastUse = new long[sets * WAYS];
+	}
+
+	/**
+	 * Accumulates the measures slots[from] until slots[to - 1] in the order of the {@link BitmaskAccumulator} with a cached plan.
+	 * The result of combination i is written to slots[to + i], so slots[to] until slots[2 * to - from - 2] have to exist.
+	 * If the plan does not fit the probabilities the combinations up to that point are still written, the remaining
+	 * combinations have to be done one by one.
+	 * @param slots the queue of measures
+	 * @param from index of the first measure
+	 * @param to index after the last measure
+	 * @return the number of combinations done, to - from - 1 if the measures were accumulated completely
+	 */
+	int accumulate(BitmaskMeasure[] slots, int from, int to) {
+		long key = key(slots, from, to);
+		if (key == 0) {
+			fallbacks++;
+			return 0;
+		}
+		Plan plan = lookup(key, slots, from, to);
+		int combinations = plan.apply(slots, from, registers, queueConflicts);
+		if (combinations < to - from - 1) {
+			fallbacks++;
+			for (int step = 0; step < combinations; step++) {
+				plan.write(step, registers, queueConflicts, slots[to + step]);
+			}
+		} else {
+			plan.write(combinations - 1, registers, queueConflicts, slots[to + combinations - 1]);
+		}
+		return combinations;
+	}
+
+	/**
+	 * Packs the number of measures, the focal set of every measure and whether its omega-entry is positive into a key.
+	 * A confidence of 1 leaves no probability for the omega-entry, the products with it are skipped by the combination.
+	 * @return the key, 0 if the measures can not be planned
+	 */
+	private long key(BitmaskMeasure[] slots, int from, int to) {
+		int count = to - from;
+		if (count < 2 || count >= 1 << COUNT_BITS || (long) count * (size + 1) > Long.SIZE - COUNT_BITS) {
+			return 0;
+		}
+		long key = count;
+		for (int i = from; i < to; i++) {
+			BitmaskMeasure measure = slots[i];
+			long mask;
+			if (measure.getEntryCount() == 1) {
+				// A focal set equal to omega merges into the omega-entry
+				mask = omegaMask;
+			} else if (measure.getEntryCount() == 2 && measure.getMask(1) != omegaMask && measure.getProbability(1) > 0.0d) {
+				mask = measure.getMask(1);
+			} else {
+				return 0;
+			}
+			key = key << 1 | (measure.getProbability(0) > 0.0d ? 0 : 1);
+			key = key << size | mask;
+		}
+		return key;
+	}
+
+	private Plan lookup(long key, BitmaskMeasure[] slots, int from, int to) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int first = ((int) (hash >>> 40) & setMask) * WAYS;
+		int oldest = first;
+		clock++;
+		for (int way = first; way < first + WAYS; way++) {
+			if (keys[way] == key) {
+				hits++;
+				lastUse[way] = clock;
+				return plans[way];
+			}
+			if (lastUse[way] < lastUse[oldest]) {
+				oldest = way;
+			}
+		}
+
+		misses++;
+		if (keys[oldest] != 0) {
+			evictions++;
+		}
+		Plan plan = new Plan(slots, from, to);
+		if (registers.length < plan.registerCount) {
+			registers = new double[plan.registerCount];
+		}
+		if (queueConflicts.length < 2 * (to - from)) {
+			queueConflicts = new double[2 * (to - from)];
+		}
+		keys[oldest] = key;
+		plans[oldest] = plan;
+		lastUse[oldest] = clock;
+		return plan;
+	}
+
+	/**
+	 * Removes all plans and resets the statistics.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		Arrays.fill(plans, null);
+		Arrays.fill(lastUse, 0L);
+		clock = hits = misses = evictions = fallbacks = 0;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getCapacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Returns the number of accumulations which found their plan in the cache.
+	 * @return number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of accumulations which had to create a plan.
+	 * @return number of misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of plans which were replaced by another plan.
+	 * @return number of evictions
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Returns the number of accumulations which could not use a plan and were combined one by one.
+	 * @return number of fallbacks
+	 */
+	public long getFallbacks() {
+		return fallbacks;
+	}
+
+	/**
+	 * Returns the share of planned accumulations which found their plan in the cache.
+	 * @return hit rate between 0 and 1, 0 if nothing was looked up yet
+	 */
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0.0d : (double) hits / lookups;
+	}
+
+	/**
+	 * The structure of the accumulation of one ordered combination of focal sets.
+	 * The probabilities of all measures, including the intermediate ones, are kept in registers.
+	 */
+	private final class Plan {
+
+		/** first register and number of entries of every input measure */
+		private final int[] inputOffsets, inputCounts;
+
+		/** per combination: register of the omega-entry of the result and the ranges of its conflicts and operations */
+		private final int[] omegaRegisters, conflictEnds, operationEnds;
+
+		/** pairs of registers whose product is a conflict */
+		private final int[] conflicts;
+
+		/** quadruples of two registers, the register their product is added to and 1 if that register is set instead */
+		private final int[] operations;
+
+		/** focal sets of the result of every combination, its probabilities start at resultOffsets */
+		private final long[][] resultMasks;
+		private final int[] resultOffsets;
+
+		private final int registerCount;
+
+		/**
+		 * Creates the plan by combining the focal sets like {@link BitmaskMeasure#combine(BitmaskMeasure, BitmaskMeasure)}.
+		 */
+		private Plan(BitmaskMeasure[] slots, int from, int to) {
+			int inputs = to - from;
+			int combinations = inputs - 1;
+			long[][] queueMasks = new long[inputs + combinations][];
+			int[] queueOffsets = new int[inputs + combinations];
+			inputOffsets = new int[inputs];
+			inputCounts = new int[inputs];
+			// Registers of omega-entries without probability, all other registers of a valid plan are positive
+			boolean[] nonPositive = new boolean[inputs * 2];
+			int registers = 0;
+			for (int i = 0; i < inputs; i++) {
+				BitmaskMeasure measure = slots[from + i];
+				nonPositive[registers] = !(measure.getProbability(0) > 0.0d);
+				queueMasks[i] = new long[measure.getEntryCount()];
+				for (int entry = 0; entry < queueMasks[i].length; entry++) {
+					queueMasks[i][entry] = measure.getMask(entry);
+				}
+				queueOffsets[i] = registers;
+				inputOffsets[i] = registers;
+				inputCounts[i] = queueMasks[i].length;
+				registers += queueMasks[i].length;
+			}
+
+			resultMasks = new long[combinations][];
+			resultOffsets = new int[combinations];
+			omegaRegisters = new int[combinations];
+			conflictEnds = new int[combinations];
+			operationEnds = new int[combinations];
+			int[] conflictList = new int[16];
+			int[] operationList = new int[32];
+			int conflictCount = 0, operationCount = 0;
+
+			// The queue of the accumulator: the first two measures are combined and the result is appended
+			int head = 0;
+			for (int step = 0; step < combinations; step++) {
+				long[] masks1 = queueMasks[head], masks2 = queueMasks[head + 1];
+				int offset1 = queueOffsets[head], offset2 = queueOffsets[head + 1];
+				head += 2;
+
+				long[] combinedMasks = new long[masks1.length * masks2.length + 1];
+				combinedMasks[0] = omegaMask;
+				int resultCount = 1;
+				for (int i = 0; i < masks1.length; i++) {
+					for (int j = 0; j < masks2.length; j++) {
+						long intersection = masks1[i] & masks2[j];
+						if (intersection == 0) {
+							if (conflictCount + 2 > conflictList.length) {
+								conflictList = Arrays.copyOf(conflictList, conflictList.length * 2);
+							}
+							conflictList[conflictCount++] = offset1 + i;
+							conflictList[conflictCount++] = offset2 + j;
+						} else if (intersection != omegaMask && nonPositive(nonPositive, offset1 + i) == nonPositive(nonPositive, offset2 + j)) {
+							// The product of a positive probability and one that is not is never added
+							int entry = 1;
+							while (entry < resultCount && combinedMasks[entry] != intersection) {
+								entry++;
+							}
+							boolean added = entry == resultCount;
+							if (added) {
+								combinedMasks[resultCount++] = intersection;
+							}
+							if (operationCount + 4 > operationList.length) {
+								operationList = Arrays.copyOf(operationList, operationList.length * 2);
+							}
+							operationList[operationCount++] = offset1 + i;
+							operationList[operationCount++] = offset2 + j;
+							operationList[operationCount++] = registers + entry;
+							operationList[operationCount++] = added ? 1 : 0;
+						}
+					}
+				}
+				int result = inputs + step;
+				queueMasks[result] = Arrays.copyOf(combinedMasks, resultCount);
+				queueOffsets[result] = registers;
+				resultMasks[step] = queueMasks[result];
+				resultOffsets[step] = registers;
+				omegaRegisters[step] = registers;
+				conflictEnds[step] = conflictCount;
+				operationEnds[step] = operationCount;
+				registers += resultCount;
+			}
+
+			conflicts = Arrays.copyOf(conflictList, conflictCount);
+			operations = Arrays.copyOf(operationList, operationCount);
+			registerCount = registers;
+		}
+
+		private boolean nonPositive(boolean[] nonPositive, int register) {
+			return register < nonPositive.length && nonPositive[register];
+		}
+
+		/**
+		 * Evaluates the plan for the probabilities of the given measures.
+		 * @return the number of combinations done, less than planned if the structure of the accumulation differs from the plan
+		 */
+		private int apply(BitmaskMeasure[] slots, int from, double[] registers, double[] queueConflicts) {
+			for (int i = 0; i < inputOffsets.length; i++) {
+				slots[from + i].copyProbabilities(registers, inputOffsets[i], inputCounts[i]);
+				queueConflicts[i] = slots[from + i].getConflict();
+			}
+
+			int conflict = 0, operation = 0;
+			for (int step = 0; step < omegaRegisters.length; step++) {
+				double conflictValue = 0.0d;
+				for (; conflict < conflictEnds[step]; conflict += 2) {
+					conflictValue = conflictValue + (registers[conflicts[conflict]] * registers[conflicts[conflict + 1]]);
+				}
+				if (!(conflictValue <= 0.99d)) {
+					return step;
+				}
+
+				queueConflicts[inputOffsets.length + step] = Measure.accumulateConflict(queueConflicts[2 * step],
+						queueConflicts[2 * step + 1], conflictValue);
+				double correction = 1.0d / (1.0d - conflictValue);
+				int omega = omegaRegisters[step];
+				registers[omega] = 1.0d;
+				for (; operation < operationEnds[step]; operation += 4) {
+					double value = registers[operations[operation]] * registers[operations[operation + 1]] * correction;
+					if (!(value > 0.0d)) {
+						return step;
+					}
+					int target = operations[operation + 2];
+					registers[target] = operations[operation + 3] == 1 ? value : registers[target] + value;
+					registers[omega] = registers[omega] - value;
+				}
+			}
+			return omegaRegisters.length;
+		}
+
+		/**
+		 * Writes the result of a combination which was evaluated by apply.
+		 */
+		private void write(int step, double[] registers, double[] queueConflicts, BitmaskMeasure target) {
+			target.set(resultMasks[step], registers, resultOffsets[step], resultMasks[step].length,
+					queueConflicts[inputOffsets.length + step]);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package de.emotreco.main.dempster;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BinaryOperator;
+
+/**
+ * Reduces a list of measures to a single one in one of the {@link DempsterHandler.Order}s, without recursion.
+ * Works for every representation of a measure, the combination of two measures is passed in.
+ */
+final class CombinationScheduler {
+
+	/** minimum number of combinations on one level of a balanced tree before the level is combined in parallel */
+	static final int PARALLEL_THRESHOLD = 32;
+
+	/** number of combinations done by one fork-join task */
+	private static final int CHUNK_SIZE = 8;
+
+	private CombinationScheduler() {
+	}
+
+	/**
+	 * Combines all measures in the given order.
+	 * @param measures the measures to combine, stays unchanged
+	 * @param order the order of the combinations
+	 * @param combination combines two measures into a new one, has to be thread safe for a parallel balanced tree
+	 * @param parallel whether large levels of a balanced tree may be combined on the fork-join pool
+	 * @return the final measure or null if the list is empty
+	 */
+	static <T> T reduce(List<T> measures, DempsterHandler.Order order, BinaryOperator<T> combination, boolean parallel) {
+		if (measures.isEmpty()) {
+			return null;
+		}
+		switch (order) {
+			case QUEUE:
+				return reduceQueue(measures, combination);
+			case LEFT_FOLD:
+				return reduceLeftFold(measures, combination);
+			case BALANCED_TREE:
+				return reduceBalancedTree(measures, combination, parallel);
+			default:
+				throw new IllegalArgumentException("Unknown order " + order);
+		}
+	}
+
+	/**
+	 * The first two measures are combined and the result is appended to the end.
+	 */
+	private static <T> T reduceQueue(List<T> measures, BinaryOperator<T> combination) {
+		ArrayDeque<T> queue = new ArrayDeque<T>(measures);
+		while (queue.size() >= 2) {
+			T measure1 = queue.poll();
+			T measure2 = queue.poll();
+			queue.add(combination.apply(measure1, measure2));
+		}
+		return queue.poll();
+	}
+
+	/**
+	 * ((m1 + m2) + m3) + ...
+	 */
+	private static <T> T reduceLeftFold(List<T> measures, BinaryOperator<T> combination) {
+		T accumulated = measures.get(0);
+		for (int i = 1; i < measures.size(); i++) {
+			accumulated = combination.apply(accumulated, measures.get(i));
+		}
+		return accumulated;
+	}
+
+	/**
+	 * Neighbours are combined level by level, (m1 + m2) + (m3 + m4) and so on. A left over measure moves up a level.
+	 * All combinations of a level are independent, so large levels are combined in parallel.
+	 */
+	private static <T> T reduceBalancedTree(List<T> measures, BinaryOperator<T> combination, boolean parallel) {
+		List<T> level = new ArrayList<T>(measures);
+		while (level.size() >= 2) {
+			int pairs = level.size() / 2;
+			List<T> next = new ArrayList<T>(pairs + 1);
+			for (int i = 0; i < pairs; i++) {
+				next.add(null);
+			}
+			if (parallel && pairs >= PARALLEL_THRESHOLD) {
+				new LevelTask<T>(level, next, combination, 0, pairs).invoke();
+			} else {
+				for (int i = 0; i < pairs; i++) {
+					next.set(i, combination.apply(level.get(2 * i), level.get(2 * i + 1)));
+				}
+			}
+			if (level.size() % 2 == 1) {
+				next.add(level.get(level.size() - 1));
+			}
+			level = next;
+		}
+		return level.get(0);
+	}
+
+	/**
+	 * Combines a range of neighbouring pairs of a level, splitting it in halves until a chunk is small enough for one thread.
+	 * Runs on the pool of the calling thread or the common pool.
+	 */
+	private static final class LevelTask<T> extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<T> level, next;
+		private final BinaryOperator<T> combination;
+		private final int from, to;
+
+		private LevelTask(List<T> level, List<T> next, BinaryOperator<T> combination, int from, int to) {
+			this.level = level;
+			this.next = next;
+			this.combination = combination;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= CHUNK_SIZE) {
+				for (int i = from; i < to; i++) {
+					next.set(i, combination.apply(level.get(2 * i), level.get(2 * i + 1)));
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new LevelTask<T>(level, next, combination, from, middle),
+						new LevelTask<T>(level, next, combination, middle, to));
+			}
+		}
+	}
+}
@@ -10,15 +10,65 @@ import java.util.List;
  * @author Ben Förnrohr, edited: Hendrik Ulbrich, Malte Bartels
  */
 public class DempsterHandler{
+
+	/** Implementations available for the accumulation of {@link Measure}s. Both produce identical results */
+	public enum Engine {
+		/** accumulates the value lists of the {@link MeasureEntry}s */
+		LIST,
+		/** accumulates primitive bitmasks, see {@link BitmaskMeasure}. Supports up to {@link BitmaskMeasure#MAX_SIZE} alternatives */
+		BITMASK
+	}
 	
+	/**
+	 * Orders in which the {@link Measure}s are combined. Due to the conflict limit of a combination the orders can lead to
+	 * different results once a partial combination exceeds a conflict of 0.99, otherwise they only differ by rounding.
+	 */
+	public enum Order {
+		/** the first two measures are combined and the result is appended to the end, the original order */
+		QUEUE,
+		/** every measure is combined into the result of all measures before it */
+		LEFT_FOLD,
+		/** neighbours are combined level by level, large levels in parallel on the fork-join pool */
+		BALANCED_TREE
+	}
+
 	/** size of the {@link Measure}s and their entrys. Should match the number of alternatives */
 	private int size;
+
+	/** the alternatives of the {@link Measure}s */
+	private FrameOfDiscernment frame;
 	
 	/** {@link Measure}s held by the handler */
 	private List<Measure> measures = new ArrayList<Measure>();
+
+	/** the implementation used by {@link #accumulateAllMeasures()} */
+	private Engine engine;
+
+	/** the order used by {@link #accumulateAllMeasures()} */
+	private Order order = Order.QUEUE;
+
+	/** whether a balanced tree may be combined in parallel */
+	private boolean parallel;
+
+	/** plans of the bitmask engine, one cache per thread and size as handlers are usually created per frame, indexed by size */
+	private static final ThreadLocal<CombinationPlanCache[]> PLAN_CACHES =
+			ThreadLocal.withInitial(() -> new CombinationPlanCache[BitmaskMeasure.MAX_SIZE + 1]);
 	
 	public DempsterHandler (int size) {
-		this.size = size;
+		this(size, Engine.LIST);
+	}
+
+	public DempsterHandler (int size, Engine engine) {
+		this(FrameOfDiscernment.of(size), engine);
+	}
+
+	public DempsterHandler (FrameOfDiscernment frame, Engine engine) {
+		if (engine == Engine.BITMASK && frame.size() > BitmaskMeasure.MAX_SIZE) {
+			throw new IllegalArgumentException("The bitmask engine supports up to " + BitmaskMeasure.MAX_SIZE + " alternatives, got " + frame.size() + ".");
+		}
+		this.frame = frame;
+		this.size = frame.size();
+		this.engine = engine;
 	}
 	
 	/** 
@@ -26,13 +76,30 @@ public class DempsterHandler{
 	 * @return the added {@link Measure}
 	 */
 	public Measure addMeasure() {
-		Measure newMeasure = new Measure(size);
+		Measure newMeasure = new Measure(frame);
 		this.measures.add(newMeasure);
 		return newMeasure;
 	}
 
 	/**
-	 * Recursively accumulates all {@link Measure}s held by the handler
+	 * Selects the order of the combinations, see {@link Order}.
+	 * @param order defaults to QUEUE
+	 */
+	public void setOrder(Order order) {
+		this.order = order;
+	}
+
+	/**
+	 * Allows or forbids combining the levels of a balanced tree with hundreds of measures on the fork-join pool.
+	 * Only pays off on several cores with measures of many entries, the combinations of single focal sets are too cheap.
+	 * @param parallel defaults to false
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Accumulates all {@link Measure}s held by the handler in the selected {@link Order}
 	 * After calling this you should be left with 1 final {@link Measure}
 	 */
 	public void accumulateAllMeasures() {
@@ -40,19 +107,59 @@ public class DempsterHandler{
 			//no measures or just 1 left. Abort
 			return;
 		}
+		Measure accumulated;
+		if (engine == Engine.BITMASK) {
+			accumulated = accumulateAllBitmaskMeasures();
+		}
 		else {
-			//take 2 measures, remove them from list
-			Measure measure1 = measures.get(0);
-			Measure measure2 = measures.get(1);
-			this.measures.remove(measure1);
-			this.measures.remove(measure2);
-			//accumulate measures, add to list
-			this.measures.add(this.accumulateMeasures(measure1, measure2));
-			this.accumulateAllMeasures();
+			accumulated = CombinationScheduler.reduce(measures, order, this::accumulateMeasures, parallel);
 		}
-		
+		this.measures.clear();
+		this.measures.add(accumulated);
+	}
+	
+	/**
+	 * Accumulates all {@link Measure}s held by the handler as {@link BitmaskMeasure}s, in the same order as the list based implementation.
+	 * @return the final {@link Measure}
+	 */
+	private Measure accumulateAllBitmaskMeasures() {
+		if (order == Order.QUEUE) {
+			BitmaskAccumulator accumulator = new BitmaskAccumulator(this.size);
+			accumulator.setPlanCache(getPlanCache(this.size));
+			for (Measure measure : measures) {
+				accumulator.addMeasure().load(measure);
+			}
+			return accumulator.accumulateAllMeasures().toMeasure(frame);
+		}
+		List<BitmaskMeasure> bitmaskMeasures = new ArrayList<BitmaskMeasure>(measures.size());
+		for (Measure measure : measures) {
+			BitmaskMeasure bitmaskMeasure = new BitmaskMeasure(this.size);
+			bitmaskMeasure.load(measure);
+			bitmaskMeasures.add(bitmaskMeasure);
+		}
+		return CombinationScheduler.reduce(bitmaskMeasures, order, (measure1, measure2) -> {
+			BitmaskMeasure combined = new BitmaskMeasure(this.size);
+			combined.combine(measure1, measure2);
+			return combined;
+		}, parallel).toMeasure(frame);
 	}
 	
+	/**
+	 * Returns the plan cache of the bitmask engine for the current thread and size. The caches of different sizes are
+	 * kept side by side, so alternating between frames of discernment does not discard the plans.
+	 * @param size size of the measures, 1 to {@link BitmaskMeasure#MAX_SIZE}
+	 * @return the cache, a new one if the thread did not accumulate measures of this size before
+	 */
+	public static CombinationPlanCache getPlanCache(int size) {
+		CombinationPlanCache[] planCaches = PLAN_CACHES.get();
+		CombinationPlanCache planCache = planCaches[size];
+		if (planCache == null) {
+			planCache = new CombinationPlanCache(size);
+			planCaches[size] = planCache;
+		}
+		return planCache;
+	}
+
 	/**
 	 * Returns the first {@link Measure} of the list
 	 * Useful after accumulating all measures to get access to the last remaining {@link Measure}
@@ -64,34 +171,67 @@ public class DempsterHandler{
 
 	/**
 	 * Accumulates 2 {@link Measure}s, taking conflicts into account
+	 * The intersections are built in a single pass which sums up the conflict and remembers the other products, which are
+	 * normalized afterwards. As long as no probability is negative the conflict can only grow, so the pass stops as soon as
+	 * the conflict exceeds 0.99 and the evidence is discarded.
 	 * @param measure1 first {@link Measure}
 	 * @param measure2 second {@link Measure}
 	 * @return resulting {@link Measure}
 	 */
 	private Measure accumulateMeasures(Measure measure1, Measure measure2) {
 		
-		Measure retMeasure = new Measure(this.size);
-		double conflict = getConflict(measure1,measure2);
+		Measure retMeasure = new Measure(this.frame);
+		List<MeasureEntry> entries1 = measure1.getMeasureEntrys();
+		List<MeasureEntry> entries2 = measure2.getMeasureEntrys();
+		boolean monotone = isNonNegative(measure1) && isNonNegative(measure2);
+
+		double conflict = 0.0d;
+		List<List<Integer>> intersections = new ArrayList<List<Integer>>();
+		List<Double> products = new ArrayList<Double>();
+		for (MeasureEntry entry1 : entries1){
+			for (MeasureEntry entry2 : entries2){
+				List<Integer> intersection = getIntersection(entry1, entry2);
+				if (entryIsEmpty(intersection)) {
+					conflict = conflict + (entry1.getProbability() * entry2.getProbability());
+				}
+				else if (!isOmegaEntry(intersection)) {
+					intersections.add(intersection);
+					products.add(entry1.getProbability() * entry2.getProbability());
+				}
+			}
+			if (monotone && conflict > 0.99d) {
+				break;
+			}
+		}
 
 		if (conflict <= 0.99d)
 		{
 		    double correction = 1.0d/(1.0d-conflict);
-		    List<MeasureEntry> entries1 = measure1.getMeasureEntrys();
-		    List<MeasureEntry> entries2 = measure2.getMeasureEntrys();
-	
-		    for (MeasureEntry entry1 : entries1){
-		    	for (MeasureEntry entry2 : entries2){
-		    		List<Integer> intersection = getIntersection(entry1, entry2);
-		    		double value = entry1.getProbability() * entry2.getProbability() * correction;
-		    		if (value > 0.0d && !entryIsEmpty(intersection) &&!isOmegaEntry(intersection)) {
-		    			retMeasure.addEntry(intersection, value);
-		    		}
+		    for (int i = 0; i < products.size(); i++) {
+		    	double value = products.get(i) * correction;
+		    	if (value > 0.0d) {
+		    		retMeasure.addEntry(intersections.get(i), value);
 		    	}
 		    }
 		}
+		retMeasure.setConflict(Measure.accumulateConflict(measure1.getConflict(), measure2.getConflict(), conflict));
 		return retMeasure;
 	}
 
+	/**
+	 * Checks if no entry of a {@link Measure} has a negative probability, so the conflict of a combination can only grow
+	 * @param measure the measure to be checked
+	 * @return if all probabilities are at least 0
+	 */
+	private boolean isNonNegative(Measure measure) {
+		for (MeasureEntry entry : measure.getMeasureEntrys()) {
+			if (!(entry.getProbability() >= 0.0d)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Checks if a List contains only 1s, identifying the omega-entry
 	 * @param entryValues the list to be checked
@@ -140,23 +280,4 @@ public class DempsterHandler{
 		}
 		return retList;
 	}
-
-	/**
-	 * Calculates the conflict-value of an accumulation of two {@link Measure}s
-	 * @param measure1 first {@link Measure}
-	 * @param measure2 second {@link Measure}
-	 * @return the value of the conflict
-	 */
-	private double getConflict(Measure measure1, Measure measure2) {
-		double conflict = 0.0d;
-		for (MeasureEntry me1: measure1.getMeasureEntrys())
-		{
-			for (MeasureEntry me2 : measure2.getMeasureEntrys()) {
-				if (this.entryIsEmpty(this.getIntersection(me1, me2))) {
-					conflict = conflict + (me1.getProbability() * me2.getProbability());
-				}
-			}
-		}
-		return conflict;
-	}		
 }
@@ -0,0 +1,107 @@
+package de.emotreco.main.dempster;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The alternatives (hypotheses) a {@link Measure} distributes its probability over, e.g. the emotions of a frame.
+ * Alternative i is position i in the values of a {@link MeasureEntry} and bit i in the mask of a {@link BitmaskMeasure},
+ * so the bitmask engine supports frames of up to {@link BitmaskMeasure#MAX_SIZE} alternatives.
+ * A frame is immutable. Unnamed frames only know their size, their labels are null.
+ */
+public final class FrameOfDiscernment {
+
+	/** the emotions of the WBS task. New emotions have to be appended here and to the rules in EmotionRules */
+	public static final FrameOfDiscernment EMOTIONS = new FrameOfDiscernment("NEUTRAL", "SADNESS", "FEAR", "JOY", "DISGUST");
+
+	/** number of alternatives */
+	private final int size;
+
+	/** names of the alternatives, null for an unnamed frame */
+	private final String[] labels;
+
+	/** index of every label */
+	private final Map<String, Integer> indices = new HashMap<String, Integer>();
+
+	/**
+	 * Creates a frame with named alternatives.
+	 * @param labels names of the alternatives in the order of their positions, have to be unique
+	 */
+	public FrameOfDiscernment(String... labels) {
+		this(labels.length, labels.clone());
+		for (int i = 0; i < labels.length; i++) {
+			if (indices.put(labels[i], i) != null) {
+				throw new IllegalArgumentException("The label " + labels[i] + " is used twice.");
+			}
+		}
+	}
+
+	private FrameOfDiscernment(int size, String[] labels) {
+		if (size < 1) {
+			throw new IllegalArgumentException("A frame needs at least one alternative, got " + size + ".");
+		}
+		this.size = size;
+		this.labels = labels;
+	}
+
+	/**
+	 * Creates a frame whose alternatives have no names.
+	 * @param size number of alternatives
+	 * @return the frame
+	 */
+	public static FrameOfDiscernment unnamed(int size) {
+		return new FrameOfDiscernment(size, null);
+	}
+
+	/**
+	 * Returns the frame used by measures which were only given a size: the emotions for 5 alternatives, an unnamed frame otherwise.
+	 * @param size number of alternatives
+	 * @return the frame
+	 */
+	static FrameOfDiscernment of(int size) {
+		return size == EMOTIONS.size ? EMOTIONS : unnamed(size);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the name of an alternative.
+	 * @param index position of the alternative
+	 * @return the name, null for an unnamed frame or an unknown index
+	 */
+	public String getLabel(int index) {
+		return labels != null && index >= 0 && index < size ? labels[index] : null;
+	}
+
+	/**
+	 * Returns the position of a named alternative.
+	 * @param label name of the alternative
+	 * @return the position, -1 if the frame has no such alternative
+	 */
+	public int indexOf(String label) {
+		Integer index = indices.get(label);
+		return index != null ? index : -1;
+	}
+
+	/**
+	 * Returns the focal set of some named alternatives as bitmask.
+	 * @param labels names of the alternatives
+	 * @return bitmask with bit i set for every given alternative i
+	 */
+	public long maskOf(String... labels) {
+		if (size > BitmaskMeasure.MAX_SIZE) {
+			throw new IllegalStateException("A bitmask supports up to " + BitmaskMeasure.MAX_SIZE + " alternatives, the frame has " + size + ".");
+		}
+		long mask = 0L;
+		for (String label : labels) {
+			int index = indexOf(label);
+			if (index < 0) {
+				throw new IllegalArgumentException("Unknown alternative " + label + ".");
+			}
+			mask |= 1L << index;
+		}
+		return mask;
+	}
+}
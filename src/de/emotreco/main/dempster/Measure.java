@@ -1,5 +1,7 @@
 package de.emotreco.main.dempster;
 
+import de.emotreco.utils.SelectionUtils;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,24 +14,55 @@ public class Measure{
 	
 	/** size of the measure-entries */
 	private int size;
+
+	/** the alternatives of the measure */
+	private FrameOfDiscernment frame;
 	
 	/** List holding the various measure-entries */
 	private List<MeasureEntry> entries = new ArrayList<MeasureEntry>();
 	
 	/** reference to the entry in the entry-list, thast represents the omega-remainder */
 	private MeasureEntry omegaEntry;
+
+	/** conflict of the combinations this measure resulted from */
+	private double conflict;
 	
 	public Measure(int size) {
-		this.size = size;
+		this(FrameOfDiscernment.of(size));
+	}
+
+	/**
+	 * Creates a measure over named alternatives, the omega-entry holds a probability of 1.
+	 * @param frame the alternatives
+	 */
+	public Measure(FrameOfDiscernment frame) {
+		this.frame = frame;
+		this.size = frame.size();
 		//set the omega-Entry to all 1
 		List<Integer> omegaEntryList = new ArrayList<Integer>();
 		for (int i = 0 ; i < size; i++) {
 			omegaEntryList.add(1);			
 		}
 		
-		this.omegaEntry = new MeasureEntry(this.size, omegaEntryList, 1.0);
+		this.omegaEntry = new MeasureEntry(frame, omegaEntryList, 1.0);
 		this.entries.add(omegaEntry);
 	}
+
+	/**
+	 * Creates a measure from primitive entries, e.g. the result of a {@link BitmaskMeasure}
+	 * @param frame the alternatives
+	 * @param masks focal sets of the entries, index 0 has to be the omega-entry
+	 * @param probabilities probabilities of the entries
+	 * @param count number of entries to take from the arrays
+	 */
+	Measure(FrameOfDiscernment frame, long[] masks, double[] probabilities, int count) {
+		this.frame = frame;
+		this.size = frame.size();
+		for (int i = 0; i < count; i++) {
+			this.entries.add(new MeasureEntry(frame, MeasureEntry.toValues(masks[i], size), probabilities[i]));
+		}
+		this.omegaEntry = this.entries.get(0);
+	}
 	
 	/**
 	 * Add an entry for the Measure by submitting the entry-values and the probability of the entry
@@ -47,20 +80,63 @@ public class Measure{
 				}			
 			}
 			//entry does not exist yet?
-			this.entries.add(new MeasureEntry(size, entries, probability));
+			this.entries.add(new MeasureEntry(frame, entries, probability));
 			this.omegaEntry.setProbability(this.omegaEntry.getProbability()-probability);
 		}
 	}
 
 	/**
-	 * Sorts a copy of the entry list and return the MeasureEntry with the highest probability.
+	 * Return the MeasureEntry with the highest probability, the first one if several entries have the highest probability.
 	 *
 	 * @return the top of the ordered measure entries. Exception if empty.
 	 */
 	public MeasureEntry getWinner() {
-		List<MeasureEntry> prioList = new ArrayList<>(entries);
-		prioList.sort((o1, o2) -> Double.compare(o2.getProbability(), o1.getProbability()));
-		return prioList.get(0);
+		return SelectionUtils.first(entries, (o1, o2) -> Double.compare(o2.getProbability(), o1.getProbability()));
+	}
+
+	/**
+	 * Creates an immutable snapshot with the winner and the belief and plausability of every single alternative,
+	 * calculated in one pass. Later changes of the measure do not affect the snapshot.
+	 *
+	 * @return the summary of this measure
+	 */
+	public MeasureSummary summarize() {
+		return MeasureSummary.of(this);
+	}
+
+	/**
+	 * Returns the conflict of the evidence this measure was accumulated from: the share of the probability that fell on
+	 * contradicting focal sets and was normalized away, over all combinations leading to this measure.
+	 * A conflict above 0.99 in a single combination discards the evidence and leaves only the omega-entry.
+	 * If a combination stops early because of such a conflict, its conflict is only known to exceed 0.99.
+	 * @return the conflict between 0 (no contradiction or not combined) and 1
+	 */
+	public double getConflict() {
+		return conflict;
+	}
+
+	void setConflict(double conflict) {
+		this.conflict = conflict;
+	}
+
+	/**
+	 * Calculates the conflict of a combination of two measures: the share of their evidence that is not contradicting is
+	 * the product of the shares of both measures and of the combination itself.
+	 * @param conflict1 conflict of the first measure
+	 * @param conflict2 conflict of the second measure
+	 * @param combinationConflict conflict of the combination
+	 * @return the conflict of the combined measure
+	 */
+	static double accumulateConflict(double conflict1, double conflict2, double combinationConflict) {
+		return 1.0d - (1.0d - conflict1) * (1.0d - conflict2) * (1.0d - combinationConflict);
+	}
+
+	/**
+	 * Returns the alternatives of the measure
+	 * @return the frame of discernment
+	 */
+	public FrameOfDiscernment getFrame() {
+		return frame;
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package de.emotreco.main.dempster;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -10,6 +11,9 @@ public class MeasureEntry{
 	
 	/** size of the entry, should match that of the holding {@link Measure} */
 	private int size;
+
+	/** alternatives of the holding {@link Measure}, naming the positions of the values */
+	private FrameOfDiscernment frame;
 	
 	/** List of values, containing 0s and 1s */
 	private List<Integer> values;
@@ -17,8 +21,9 @@ public class MeasureEntry{
 	/** probability of a single measure */
 	private double probability;
 	
-	MeasureEntry(int size, List<Integer> values, double probability) {
-		this.size = size;
+	MeasureEntry(FrameOfDiscernment frame, List<Integer> values, double probability) {
+		this.size = frame.size();
+		this.frame = frame;
 		this.values = values;
 		this.probability = probability;
 	}
@@ -33,7 +38,37 @@ public class MeasureEntry{
 	}
 
 	/**
-	 * Get the emotion name for a believable list of values.
+	 * Returns the values in the entry as a bitmask, bit i is set if the value at position i is 1.
+	 *
+	 * @return bitmask of the values e.g. 0b10000 for [0,0,0,0,1]
+	 */
+	long getMask() {
+		long mask = 0L;
+		for (int i = 0; i < size; i++) {
+			if (values.get(i) == 1) {
+				mask |= 1L << i;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Converts a bitmask into a List of values.
+	 *
+	 * @param mask bitmask, bit i represents position i
+	 * @param size number of values
+	 * @return List of all values e.g [0,0,0,0,1] for 0b10000
+	 */
+	static List<Integer> toValues(long mask, int size) {
+		List<Integer> values = new ArrayList<Integer>(size);
+		for (int i = 0; i < size; i++) {
+			values.add((mask & (1L << i)) != 0 ? 1 : 0);
+		}
+		return values;
+	}
+
+	/**
+	 * Get the emotion name for a believable list of values, the label of the first alternative in the {@link FrameOfDiscernment}.
 	 *
 	 * @return String
 	 *  [1,0,0,0,0]: NEUTRAL
@@ -41,23 +76,20 @@ public class MeasureEntry{
 	 *  [0,0,1,0,0]: FEAR
 	 *  [0,0,0,1,0]: JOY
 	 *  [0,0,0,0,1]: DISGUST
-	 *  Other: null
+	 *  Other or unnamed frame: null
 	 */
 	public String getEmotion() {
-		switch (getEmotionIndex()) {
-			case 0:
-				return "NEUTRAL";
-			case 1:
-				return "SADNESS";
-			case 2:
-				return "FEAR";
-			case 3:
-				return "JOY";
-			case 4:
-				return "DISGUST";
-			default:
-				return null;
-		}
+		return frame.getLabel(getEmotionIndex());
+	}
+
+	/**
+	 * Get the emotion name for an emotion index, see {@link FrameOfDiscernment#EMOTIONS}.
+	 *
+	 * @param emotionIndex see getEmotionIndex
+	 * @return String e.g. NEUTRAL for 0, null for unknown indices
+	 */
+	public static String getEmotion(int emotionIndex) {
+		return FrameOfDiscernment.EMOTIONS.getLabel(emotionIndex);
 	}
 
 	/**
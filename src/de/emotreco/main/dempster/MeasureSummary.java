@@ -0,0 +1,249 @@
+package de.emotreco.main.dempster;
+
+/**
+ * Immutable snapshot of the values reported for a finished {@link Measure}: the winning entry and the belief and
+ * plausability of every single alternative. Everything is calculated in one pass over the entries, afterwards every
+ * query is an array access. The sums are built in entry order, so they are identical to the calculations of {@link Measure}.
+ * Measures of more than {@link BitmaskMeasure#MAX_SIZE} alternatives are summarized from their value lists instead of bitmasks.
+ */
+public final class MeasureSummary {
+
+	/** the alternatives of the summarized measure */
+	private final FrameOfDiscernment frame;
+
+	/** belief and plausability of every single alternative */
+	private final double[] beliefs, plausabilities;
+
+	/** focal set and probability of the winning entry, the focal set is 0 if it does not fit into a bitmask */
+	private final long winnerMask;
+	private final double winnerProbability;
+
+	/** first alternative of the winning entry, Integer.MIN_VALUE if the winning entry is empty */
+	private final int winnerIndex;
+
+	/** conflict of the summarized measure */
+	private final double conflict;
+
+	/**
+	 * Summarizes a list based measure, through a bitmask measure if its alternatives fit into a bitmask.
+	 * @param measure the finished measure
+	 * @return the summary of the measure
+	 */
+	static MeasureSummary of(Measure measure) {
+		if (measure.getFrame().size() > BitmaskMeasure.MAX_SIZE) {
+			return new MeasureSummary(measure);
+		}
+		return new MeasureSummary(toBitmaskMeasure(measure), measure.getFrame());
+	}
+
+	/**
+	 * Summarizes a list based measure from the value lists of its entries, for focal sets which do not fit into a bitmask.
+	 * Every entry is added to the belief of its alternative if it is a single one and to the plausability of all of its alternatives.
+	 * @param measure the finished measure
+	 */
+	private MeasureSummary(Measure measure) {
+		this.frame = measure.getFrame();
+		this.conflict = measure.getConflict();
+		this.beliefs = new double[frame.size()];
+		this.plausabilities = new double[frame.size()];
+		for (MeasureEntry entry : measure.getMeasureEntrys()) {
+			double probability = entry.getProbability();
+			int alternatives = 0, alternative = -1;
+			for (int i = 0; i < beliefs.length; i++) {
+				if (entry.getValues().get(i) == 1) {
+					plausabilities[i] = plausabilities[i] + probability;
+					alternatives++;
+					alternative = i;
+				}
+			}
+			if (alternatives == 1) {
+				beliefs[alternative] = beliefs[alternative] + probability;
+			}
+		}
+		MeasureEntry winner = measure.getWinner();
+		this.winnerMask = 0;
+		this.winnerProbability = winner.getProbability();
+		this.winnerIndex = winner.getEmotionIndex();
+	}
+
+	/**
+	 * Summarizes a bitmask measure. Every entry is added to the belief of its alternative if it is a single one
+	 * and to the plausability of all of its alternatives.
+	 * @param measure the finished measure
+	 * @param frame the alternatives of the measure
+	 */
+	MeasureSummary(BitmaskMeasure measure, FrameOfDiscernment frame) {
+		this.frame = frame;
+		this.conflict = measure.getConflict();
+		this.beliefs = new double[frame.size()];
+		this.plausabilities = new double[frame.size()];
+		for (int entry = 0; entry < measure.getEntryCount(); entry++) {
+			long mask = measure.getMask(entry);
+			double probability = measure.getProbability(entry);
+			if (Long.bitCount(mask) == 1) {
+				int alternative = Long.numberOfTrailingZeros(mask);
+				beliefs[alternative] = beliefs[alternative] + probability;
+			}
+			for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+				int alternative = Long.numberOfTrailingZeros(remaining);
+				plausabilities[alternative] = plausabilities[alternative] + probability;
+			}
+		}
+		int winner = findWinner(measure);
+		this.winnerMask = measure.getMask(winner);
+		this.winnerProbability = measure.getProbability(winner);
+		this.winnerIndex = winnerMask == 0 ? Integer.MIN_VALUE : Long.numberOfTrailingZeros(winnerMask);
+	}
+
+	/**
+	 * Reports only the winner of a list based measure, see {@link #summarizeWinner(BitmaskMeasure, WinnerSink)}.
+	 * @param measure the finished measure
+	 * @param sink receives the winner
+	 */
+	public static void summarizeWinner(Measure measure, WinnerSink sink) {
+		if (measure.getFrame().size() <= BitmaskMeasure.MAX_SIZE) {
+			summarizeWinner(toBitmaskMeasure(measure), sink);
+			return;
+		}
+		MeasureSummary summary = new MeasureSummary(measure);
+		int winner = summary.getWinnerIndex();
+		if (winner < 0) {
+			sink.setWinner(-1, 0.0, 0.0, summary.getConflict());
+		} else {
+			sink.setWinner(winner, summary.getBelief(winner), summary.getPlausability(winner), summary.getConflict());
+		}
+	}
+
+	/**
+	 * Reports only the winner of a measure with its belief and plausability, without creating a snapshot.
+	 * The values are identical to the ones of a summary of the same measure.
+	 * @param measure the finished measure
+	 * @param sink receives the winner
+	 */
+	public static void summarizeWinner(BitmaskMeasure measure, WinnerSink sink) {
+		long winnerMask = measure.getMask(findWinner(measure));
+		if (winnerMask == 0) {
+			sink.setWinner(-1, 0.0, 0.0, measure.getConflict());
+			return;
+		}
+
+		// The winner of an entry is its first alternative, see MeasureEntry.getEmotionIndex
+		int alternative = Long.numberOfTrailingZeros(winnerMask);
+		long alternativeMask = 1L << alternative;
+		double belief = 0.0, plausability = 0.0;
+		for (int entry = 0; entry < measure.getEntryCount(); entry++) {
+			long mask = measure.getMask(entry);
+			if (mask == alternativeMask) {
+				belief = belief + measure.getProbability(entry);
+			}
+			if ((mask & alternativeMask) != 0) {
+				plausability = plausability + measure.getProbability(entry);
+			}
+		}
+		sink.setWinner(alternative, belief, plausability, measure.getConflict());
+	}
+
+	/**
+	 * @return index of the winning entry, the first one with the highest probability like in {@link Measure#getWinner()}
+	 */
+	private static int findWinner(BitmaskMeasure measure) {
+		int winner = 0;
+		for (int entry = 1; entry < measure.getEntryCount(); entry++) {
+			if (Double.compare(measure.getProbability(entry), measure.getProbability(winner)) > 0) {
+				winner = entry;
+			}
+		}
+		return winner;
+	}
+
+	private static BitmaskMeasure toBitmaskMeasure(Measure measure) {
+		BitmaskMeasure bitmaskMeasure = new BitmaskMeasure(measure.getFrame().size());
+		bitmaskMeasure.load(measure);
+		return bitmaskMeasure;
+	}
+
+	/**
+	 * Returns the focal set of the entry with the highest probability.
+	 * @return bitmask, bit i is set if alternative i is part of the set
+	 * @throws IllegalStateException if the measure has more than {@link BitmaskMeasure#MAX_SIZE} alternatives
+	 */
+	public long getWinnerMask() {
+		if (frame.size() > BitmaskMeasure.MAX_SIZE) {
+			throw new IllegalStateException("The focal sets of " + frame.size() + " alternatives do not fit into a bitmask.");
+		}
+		return winnerMask;
+	}
+
+	public double getWinnerProbability() {
+		return winnerProbability;
+	}
+
+	/**
+	 * Returns the first alternative of the winning entry, like {@link MeasureEntry#getEmotionIndex()}.
+	 * @return the index of the alternative, Integer.MIN_VALUE if the winning entry is empty
+	 */
+	public int getWinnerIndex() {
+		return winnerIndex;
+	}
+
+	/**
+	 * Returns the name of the first alternative of the winning entry, like {@link MeasureEntry#getEmotion()}.
+	 * @return the name, null for an unnamed frame or an empty winning entry
+	 */
+	public String getWinnerLabel() {
+		return frame.getLabel(getWinnerIndex());
+	}
+
+	/**
+	 * Returns the belief for a given index
+	 * @param index the index
+	 * @return the belief for the index or 0.0 if the index is out of range
+	 */
+	public double getBelief(int index) {
+		return index >= 0 && index < beliefs.length ? beliefs[index] : 0.0;
+	}
+
+	/**
+	 * Returns the plausability for a given index
+	 * @param index the index
+	 * @return the plausability for the index or 0.0 if the index is out of range
+	 */
+	public double getPlausability(int index) {
+		return index >= 0 && index < plausabilities.length ? plausabilities[index] : 0.0;
+	}
+
+	/**
+	 * Returns the doubt for a given index
+	 * @param index the index
+	 * @return the doubt for the index or 1.0 if the index is out of range
+	 */
+	public double getDoubt(int index) {
+		return 1 - getPlausability(index);
+	}
+
+	/**
+	 * Returns the conflict of the summarized measure, see {@link Measure#getConflict()}.
+	 * @return the conflict between 0 and 1
+	 */
+	public double getConflict() {
+		return conflict;
+	}
+
+	public FrameOfDiscernment getFrame() {
+		return frame;
+	}
+
+	/**
+	 * Receives the winner of a measure, see {@link #summarizeWinner(BitmaskMeasure, WinnerSink)}.
+	 */
+	public interface WinnerSink {
+
+		/**
+		 * @param alternative first alternative of the winning entry, -1 if the winning entry is empty
+		 * @param belief belief of the alternative
+		 * @param plausability plausability of the alternative
+		 * @param conflict conflict of the measure, see {@link Measure#getConflict()}
+		 */
+		void setWinner(int alternative, double belief, double plausability, double conflict);
+	}
+}
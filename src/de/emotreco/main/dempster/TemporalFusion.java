@@ -0,0 +1,180 @@
+package de.emotreco.main.dempster;
+
+/**
+ * Fuses the measure of the current frame with the measures of the previous frames, which smoothes the flickering of
+ * independently classified frames. The measures are combined with the rule of Dempster, older evidence is discounted.
+ *
+ * With a window the previous frames are kept in a ring buffer of precombined measures, which works like a queue of two stacks.
+ * The back half holds the newest frames as one running combination. When the oldest frame of the window is due to be
+ * removed, the back half is turned into the front half: every slot is replaced by the combination of its frame with all
+ * newer frames of the half. Dropping the oldest frame then means starting from the next slot. A frame costs two
+ * combinations and turning the halves one per frame of the window, once every window frames, so the cost per frame stays
+ * constant no matter the window size.
+ *
+ * A frame k frames ago weighs reliability^k, but like without a window the discount is applied to precombined measures
+ * instead of every single frame: the running combination is discounted once per frame and a front slot is discounted by
+ * the frames passed since it was built. Discounting does not distribute over the combination, so with a reliability below 1
+ * the result approximates discounting every frame of the window separately. Frames still leave the window exactly.
+ *
+ * Without a window all previous frames are fused, the fused measure is discounted before every new frame.
+ * The evidence of a frame k frames ago is therefore discounted exponentially, k times, and a frame costs a constant amount
+ * of combinations no matter how many frames were fused.
+ *
+ * The combination is associative except for the conflict limit of the {@link DempsterHandler}: when a partial combination
+ * exceeds a conflict of 0.99 it becomes vacuous. The frames are grouped differently than in a single DempsterHandler
+ * queue, so the result can differ from it in these cases.
+ *
+ * A fusion holds the state of one stream of frames and is not thread safe.
+ */
+public final class TemporalFusion {
+
+	/** window size for fusing all previous frames with exponential discounting */
+	public static final int UNBOUNDED = 0;
+
+	private final int window;
+	private final double reliability;
+
+	/**
+	 * frame n is stored at n % window. Frames of the back half are stored without discount, a slot of the front half holds
+	 * the combination of its frame with all newer frames of the front half, discounted by their age when the halves were turned
+	 */
+	private final BitmaskMeasure[] frames;
+	/** discounts[k] is the reliability of a frame k frames ago, reliability^k */
+	private final double[] discounts;
+	/** the next frame to be stored */
+	private long next;
+	/** the first frame of the back half, the front half ends before it */
+	private long turn;
+
+	/** combination of the back half, or of all fused frames without a window */
+	private BitmaskMeasure back;
+
+	private final BitmaskMeasure input, discounted;
+	private BitmaskMeasure fused, scratch;
+
+	/**
+	 * @param size size of the measures, should match the number of alternatives
+	 * @param window amount of previous frames to fuse, UNBOUNDED for all previous frames
+	 * @param reliability discount of previous frames between 0 (only the current frame counts) and 1 (no discount)
+	 */
+	public TemporalFusion(int size, int window, double reliability) {
+		if (window < 0) {
+			throw new IllegalArgumentException("The window can not be negative, got " + window + ".");
+		}
+		if (!(reliability >= 0.0d && reliability <= 1.0d)) {
+			throw new IllegalArgumentException("The reliability has to be between 0 and 1, got " + reliability + ".");
+		}
+		this.window = window;
+		this.reliability = reliability;
+		this.frames = new BitmaskMeasure[window];
+		for (int i = 0; i < window; i++) {
+			frames[i] = new BitmaskMeasure(size);
+		}
+		this.discounts = new double[window + 1];
+		discounts[0] = 1.0d;
+		for (int age = 1; age <= window; age++) {
+			discounts[age] = discounts[age - 1] * reliability;
+		}
+		this.back = new BitmaskMeasure(size);
+		this.input = new BitmaskMeasure(size);
+		this.discounted = new BitmaskMeasure(size);
+		this.fused = new BitmaskMeasure(size);
+		this.scratch = new BitmaskMeasure(size);
+	}
+
+	/**
+	 * Fuses the measure of the next frame with the previous frames.
+	 * @param measure measure of the current frame, null if nothing was measured
+	 * @return the fused measure
+	 */
+	public Measure push(Measure measure) {
+		if (measure == null) {
+			return push((BitmaskMeasure) null).toMeasure();
+		}
+		input.load(measure);
+		return push(input).toMeasure();
+	}
+
+	/**
+	 * Fuses the measure of the next frame with the previous frames.
+	 * @param measure measure of the current frame, stays unchanged. Null if nothing was measured, the frame is fused as a
+	 *                vacuous measure then, so the previous frames still age
+	 * @return the fused measure, only valid until the next push
+	 */
+	public BitmaskMeasure push(BitmaskMeasure measure) {
+		if (measure == null) {
+			input.reset();
+			measure = input;
+		}
+		if (window == UNBOUNDED) {
+			back.discount(reliability);
+			fused.combine(back, measure);
+			back.copyFrom(fused);
+			return fused;
+		}
+
+		// The front half has left the window, so the back half becomes the front half
+		if (next - window == turn) {
+			turn();
+		}
+
+		// Fuse the back half with the current frame, then the rest of the front half which is older
+		scratch.combine(back, measure);
+		if (turn > 0) {
+			discounted.copyFrom(frames[index(next - window)]);
+			discounted.discount(discounts[(int) (next - turn)]);
+			fused.combine(discounted, scratch);
+		} else {
+			fused.copyFrom(scratch);
+		}
+
+		// And remember the current frame for the next ones, the slot of the frame leaving the window is free now
+		swapBack();
+		back.discount(reliability);
+		frames[index(next)].copyFrom(measure);
+		next++;
+		return fused;
+	}
+
+	/**
+	 * Turns the back half into the front half: the newest frame is discounted by its age, every older frame is discounted
+	 * by its age and combined with the slot after it.
+	 */
+	private void turn() {
+		frames[index(next - 1)].discount(discounts[1]);
+		for (long frame = next - 2; frame >= next - window; frame--) {
+			discounted.copyFrom(frames[index(frame)]);
+			discounted.discount(discounts[(int) (next - frame)]);
+			frames[index(frame)].combine(discounted, frames[index(frame + 1)]);
+		}
+		back.reset();
+		turn = next;
+	}
+
+	/**
+	 * Removes all previous frames, e.g. when a new stream starts.
+	 */
+	public void reset() {
+		back.reset();
+		next = 0;
+		turn = 0;
+	}
+
+	private void swapBack() {
+		BitmaskMeasure combined = scratch;
+		scratch = back;
+		back = combined;
+	}
+
+	private int index(long frame) {
+		return (int) (frame % window);
+	}
+
+	public int getWindow() {
+		return window;
+	}
+
+	public double getReliability() {
+		return reliability;
+	}
+}
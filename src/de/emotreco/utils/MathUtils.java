@@ -5,6 +5,15 @@ import java.text.DecimalFormat;
 
 public class MathUtils {
 
+    /**
+     * DecimalFormat is expensive to create and not thread-safe, so every thread keeps its own instance.
+     */
+    private static final ThreadLocal<DecimalFormat> ROUNDING_FORMAT = ThreadLocal.withInitial(() -> {
+        DecimalFormat df = new DecimalFormat("#.####");
+        df.setRoundingMode(RoundingMode.CEILING);
+        return df;
+    });
+
     /**
      * Rounds a number to 4 digits after the decimal separator for printing purposes.
      * This function is using float values.
@@ -13,9 +22,7 @@ public class MathUtils {
      * @return the string of the rounded number
      */
     public static String round(float number) {
-        DecimalFormat df = new DecimalFormat("#.####");
-        df.setRoundingMode(RoundingMode.CEILING);
-        return df.format(number);
+        return ROUNDING_FORMAT.get().format(number);
     }
 
     /**
@@ -26,9 +33,7 @@ public class MathUtils {
      * @return the string of the rounded number
      */
     public static String round(double number) {
-        DecimalFormat df = new DecimalFormat("#.####");
-        df.setRoundingMode(RoundingMode.CEILING);
-        return df.format(number);
+        return ROUNDING_FORMAT.get().format(number);
     }
 
 }
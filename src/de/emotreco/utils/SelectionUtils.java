@@ -0,0 +1,28 @@
+package de.emotreco.utils;
+
+import java.util.Comparator;
+import java.util.List;
+
+public class SelectionUtils {
+
+    /**
+     * Selects the element a stable sort would put first, without copying or sorting the list.
+     * Of several equal elements the earliest one is selected, like after <code>List.sort</code>.
+     *
+     * @param list the elements to select from
+     * @param order the order of a sort
+     * @param <T> type of the elements
+     * @return the first element in the given order. Exception if empty.
+     */
+    public static <T> T first(List<? extends T> list, Comparator<? super T> order) {
+        T first = list.get(0);
+        for (int i = 1; i < list.size(); i++) {
+            T candidate = list.get(i);
+            if (order.compare(candidate, first) < 0) {
+                first = candidate;
+            }
+        }
+        return first;
+    }
+
+}
@@ -0,0 +1,95 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.facialexpressionmodel.FacialExpression;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.main.ClassificationContext;
+import de.emotreco.main.ClassificationResult;
+import de.emotreco.main.dempster.DempsterHandler;
+import de.emotreco.main.dempster.Measure;
+import de.emotreco.main.dempster.MeasureEntry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * This class is for verifying that the ClassificationContext matches the Measure based classification
+ * and does not allocate any memory once it is warmed up.
+ */
+public class AllocationFreeClassification {
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 2_000;
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * Alternative entry point for executing the test. Fails with an exception if a result differs or memory was allocated.
+     * @param args none
+     * @throws IOException if the sample file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        FeatureFrame[] featureFrames = new FeatureImporter().convert(new CSVImporter("data/emo_muster_1_1.csv").readFile());
+        FacialExpressionDescriptor descriptor = new FacialExpressionDescriptor(featureFrames);
+        ClassificationContext context = new ClassificationContext(descriptor);
+        ClassificationResult result = new ClassificationResult();
+
+        for (int i = 0; i < featureFrames.length; i++) {
+            context.classifyFrame(featureFrames[i], result);
+            compareToMeasure(classifyToMeasure(featureFrames[i], descriptor), result, i);
+        }
+        System.out.println("Results of " + featureFrames.length + " frames identical.");
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        classifyRounds(context, featureFrames, result, WARMUP_ROUNDS);
+
+        // Compilation and the measurement itself can allocate a few bytes, so the best of some runs is taken
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            classifyRounds(context, featureFrames, result, MEASURED_ROUNDS);
+            allocated = Math.min(allocated, threadBean.getThreadAllocatedBytes(threadId) - before);
+        }
+
+        long frames = (long) MEASURED_ROUNDS * featureFrames.length;
+        System.out.println("Allocated " + allocated + " bytes for " + frames + " frames.");
+        if (allocated > 0) {
+            throw new RuntimeException("Steady state classification allocated " + allocated + " bytes.");
+        }
+    }
+
+    private static void classifyRounds(ClassificationContext context, FeatureFrame[] featureFrames, ClassificationResult result, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            for (FeatureFrame featureFrame : featureFrames) {
+                context.classifyFrame(featureFrame, result);
+            }
+        }
+    }
+
+    private static Measure classifyToMeasure(FeatureFrame frame, FacialExpressionDescriptor descriptor) {
+        DempsterHandler dempsterHandler = new DempsterHandler(5);
+        for (FacialExpression expression : descriptor.describeFrame(frame)) {
+            if (expression != null) {
+                dempsterHandler.addMeasure().addEntry(expression.getMatchingBinaries(), expression.getConfidence());
+            }
+        }
+        dempsterHandler.accumulateAllMeasures();
+        return dempsterHandler.getFirstMeasure();
+    }
+
+    private static void compareToMeasure(Measure measure, ClassificationResult result, int i) {
+        MeasureEntry winner = measure.getWinner();
+        int index = winner.getEmotionIndex();
+        if (index != result.getWinnerIndex()
+                || measure.calculateBelief(index) != result.getBelief()
+                || measure.calculatePlausability(index) != result.getPlausability()
+                || measure.calculateDoubt(index) != result.getDoubt()
+                || measure.getConflict() != result.getConflict()) {
+            throw new RuntimeException("Frame " + (i + 1) + " differs. Expected " + winner.getEmotion() + " but got " + result.getEmotion() + ".");
+        }
+    }
+
+}
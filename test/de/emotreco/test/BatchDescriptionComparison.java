@@ -0,0 +1,81 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.facialexpressionmodel.FacialExpression;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.facialexpressionmodel.MembershipBlock;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is for verifying that describing the features of a block of frames with describeFeatures
+ * results in the same intensities and confidences as describeFrame, and that both select the same winner
+ * as sorting the confidences of all intensities.
+ */
+public class BatchDescriptionComparison {
+
+    private static final String[] SAMPLE_FILES = { "data/emo_muster_1_1.csv", "data/emo_muster_1_2.csv", "data/emo_muster_1_3.csv" };
+    private static final int BLOCK_SIZE = 1024;
+
+    /**
+     * Alternative entry point for executing the comparison. Fails with an exception on the first difference.
+     * @param args the csv files to compare, the sample files if none are given
+     * @throws IOException if a file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        MembershipBlock block = new MembershipBlock(BLOCK_SIZE);
+        for (String fileName : args.length > 0 ? args : SAMPLE_FILES) {
+            FeatureFrame[] featureFrames = new FeatureImporter().convert(new CSVImporter(fileName).readFile());
+            FacialExpressionDescriptor descriptor = new FacialExpressionDescriptor(featureFrames);
+            FacialExpression[][] expressions = new FacialExpression[featureFrames.length][];
+            for (int frame = 0; frame < featureFrames.length; frame++) {
+                expressions[frame] = descriptor.describeFrame(featureFrames[frame]);
+            }
+
+            float[] column = new float[featureFrames.length];
+            for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+                for (int frame = 0; frame < featureFrames.length; frame++) {
+                    column[frame] = featureFrames[frame].hasFeature(i) ? featureFrames[frame].getFeature(i) : 0f;
+                }
+                for (int offset = 0; offset < featureFrames.length; offset += BLOCK_SIZE) {
+                    int count = Math.min(BLOCK_SIZE, featureFrames.length - offset);
+                    descriptor.describeFeatures(i, column, offset, count, block);
+                    for (int j = 0; j < count; j++) {
+                        compare(expressions[offset + j][i], descriptor, block, i, column[offset + j], j, offset + j, fileName);
+                    }
+                }
+            }
+            System.out.println(fileName + ": " + featureFrames.length + " frames identical.");
+        }
+    }
+
+    private static void compare(FacialExpression expected, FacialExpressionDescriptor descriptor, MembershipBlock block,
+                                int i, float x, int j, int frame, String fileName) {
+        if (expected == null) {
+            return;
+        }
+        int intensity = block.getIntensity(j);
+
+        // Reference: the winner of a stable sort by descending confidence, as describeFrame did before
+        List<Integer> intensities = new ArrayList<>(Arrays.asList(FacialExpressionDescriptor.LOW, FacialExpressionDescriptor.MEDIUM, FacialExpressionDescriptor.HIGH));
+        intensities.sort((o1, o2) -> Float.compare(descriptor.calculateConfidence(o2, i, x), descriptor.calculateConfidence(o1, i, x)));
+        if (intensities.get(0) != intensity) {
+            throw new RuntimeException("Feature " + i + " of frame " + (frame + 1) + " in " + fileName + " does not match the sorted winner.");
+        }
+        if (!FacialExpressionDescriptor.INTENSITIES[intensity].equals(expected.getValue())
+                || Float.compare(block.getConfidence(j), expected.getConfidence()) != 0) {
+            throw new RuntimeException("Feature " + i + " of frame " + (frame + 1) + " in " + fileName + " differs.");
+        }
+        for (int other = FacialExpressionDescriptor.LOW; other <= FacialExpressionDescriptor.HIGH; other++) {
+            if (Float.compare(block.getConfidence(other, j), descriptor.calculateConfidence(other, i, x)) != 0) {
+                throw new RuntimeException("Confidence " + FacialExpressionDescriptor.INTENSITIES[other] + " of feature " + i
+                        + " of frame " + (frame + 1) + " in " + fileName + " differs.");
+            }
+        }
+    }
+}
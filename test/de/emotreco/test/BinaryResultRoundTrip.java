@@ -0,0 +1,86 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.main.BinaryResultReader;
+import de.emotreco.main.BinaryResultWriter;
+import de.emotreco.main.ClassificationContext;
+import de.emotreco.main.ClassificationResult;
+import de.emotreco.main.EmotionClassifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class is for verifying that results written by a BinaryResultWriter are read back unchanged
+ * and match the results of the ClassificationContext, sequentially and in parallel.
+ */
+public class BinaryResultRoundTrip {
+
+    private static final String[] SAMPLE_FILES = { "data/emo_muster_1_1.csv", "data/emo_muster_1_2.csv", "data/emo_muster_1_3.csv" };
+
+    /**
+     * Alternative entry point for executing the test. Fails with an exception on the first difference.
+     * @param args the csv files to check, the sample files if none are given
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path resultFile = Files.createTempFile("emotion-results", ".bin");
+        try {
+            for (String fileName : args.length > 0 ? args : SAMPLE_FILES) {
+                FeatureFrame[] featureFrames = new FeatureImporter().convert(new CSVImporter(fileName).readFile());
+                FacialExpressionDescriptor descriptor = new FacialExpressionDescriptor(featureFrames);
+                for (int parallelism = 1; parallelism <= 2; parallelism++) {
+                    try (BinaryResultWriter writer = new BinaryResultWriter(resultFile)) {
+                        EmotionClassifier classifier = new EmotionClassifier(writer);
+                        classifier.setParallelism(parallelism);
+                        classifier.classifyFileResults(fileName);
+                    }
+                    compare(resultFile, featureFrames, descriptor, fileName);
+                }
+                System.out.println(fileName + ": " + featureFrames.length + " frames identical.");
+            }
+        } finally {
+            Files.delete(resultFile);
+        }
+    }
+
+    private static void compare(Path resultFile, FeatureFrame[] featureFrames, FacialExpressionDescriptor descriptor, String fileName) throws IOException {
+        ClassificationContext context = new ClassificationContext(descriptor);
+        ClassificationResult expected = new ClassificationResult();
+        ClassificationResult actual = new ClassificationResult();
+        try (BinaryResultReader reader = new BinaryResultReader(resultFile)) {
+            if (reader.getRecordCount() != featureFrames.length) {
+                throw new RuntimeException(fileName + " has " + reader.getRecordCount() + " records instead of " + featureFrames.length + ".");
+            }
+            for (int i = 0; i < featureFrames.length; i++) {
+                context.classifyFrame(featureFrames[i], expected);
+                if (reader.read(actual) != i || !equal(expected, actual)) {
+                    throw new RuntimeException("Record " + i + " of " + fileName + " differs.");
+                }
+            }
+            if (reader.read(actual) != -1) {
+                throw new RuntimeException("Record after the last frame of " + fileName + ".");
+            }
+
+            // Random access to the last record
+            int last = featureFrames.length - 1;
+            reader.seek(last);
+            context.classifyFrame(featureFrames[last], expected);
+            if (reader.read(actual) != last || !equal(expected, actual)) {
+                throw new RuntimeException("Record " + last + " of " + fileName + " differs after seeking.");
+            }
+        }
+    }
+
+    private static boolean equal(ClassificationResult expected, ClassificationResult actual) {
+        return expected.getWinnerIndex() == actual.getWinnerIndex()
+                && expected.getBelief() == actual.getBelief()
+                && expected.getPlausability() == actual.getPlausability()
+                && expected.getDoubt() == actual.getDoubt()
+                && expected.getConflict() == actual.getConflict();
+    }
+}
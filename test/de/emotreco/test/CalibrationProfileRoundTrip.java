@@ -0,0 +1,135 @@
+package de.emotreco.test;
+
+import de.emotreco.facialexpressionmodel.CalibrationProfiles;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.main.ClassificationResult;
+import de.emotreco.main.EmotionClassifier;
+import de.emotreco.main.ResultSink;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * This class is for verifying that a calibration saved as profile classifies the frames exactly like the calibration
+ * with the first frames, whether it comes from the cache or from the profile file, that the cache evicts the least
+ * recently used profile and that concurrent loads cache one descriptor.
+ */
+public class CalibrationProfileRoundTrip {
+
+    private static final String SAMPLE_FILE = "data/emo_muster_1_1.csv";
+
+    /**
+     * Alternative entry point for executing the test. Fails with an exception on the first difference.
+     * @param args none
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("emotion-profiles");
+        try {
+            String expected = describe(new EmotionClassifier(ResultSink.SILENT).classifyFileResults(SAMPLE_FILE));
+
+            CalibrationProfiles profiles = new CalibrationProfiles(directory, 2);
+            EmotionClassifier classifier = new EmotionClassifier(ResultSink.SILENT);
+            classifier.setCalibrationProfile(profiles, "subject-1", "camera-1");
+            compare(expected, describe(classifier.classifyFileResults(SAMPLE_FILE)), "calibrating and saving");
+            compare(expected, describe(classifier.classifyFileResults(SAMPLE_FILE)), "the cached profile");
+
+            // A new instance has to read the profile file
+            CalibrationProfiles coldProfiles = new CalibrationProfiles(directory, 2);
+            classifier.setCalibrationProfile(coldProfiles, "subject-1", "camera-1");
+            compare(expected, describe(classifier.classifyFileResults(SAMPLE_FILE)), "the profile file");
+            List<ClassificationResult> streamed = new ArrayList<>();
+            classifier.classifyFileStreaming(SAMPLE_FILE, result -> streamed.add(new ClassificationResult(result)));
+            compare(expected, describe(streamed.toArray(new ClassificationResult[0])), "streaming with the profile");
+            if (coldProfiles.getMisses() != 1 || coldProfiles.getHits() != 1) {
+                throw new RuntimeException("Expected one miss and one hit, got " + coldProfiles.getMisses() + " and " + coldProfiles.getHits() + ".");
+            }
+
+            // The least recently used profile is evicted, loading it again reads the file
+            FacialExpressionDescriptor descriptor = coldProfiles.load("subject-1", "camera-1");
+            coldProfiles.save("subject-2", "camera-1", descriptor);
+            coldProfiles.save("subject-3", "camera-1", descriptor);
+            coldProfiles.load("subject-1", "camera-1");
+            if (coldProfiles.getMisses() != 2) {
+                throw new RuntimeException("The least recently used profile was not evicted.");
+            }
+            if (coldProfiles.load("subject-4", "camera-1") != null) {
+                throw new RuntimeException("A profile which was never saved was found.");
+            }
+            loadConcurrently(directory);
+
+            Path damaged = Files.createTempFile(directory, "damaged", ".profile");
+            Files.write(damaged, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+            try {
+                CalibrationProfiles.read(damaged);
+                throw new RuntimeException("A damaged profile was read.");
+            } catch (IOException e) {
+                // Expected
+            }
+            System.out.println("Calibration profiles of " + SAMPLE_FILE + " identical.");
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Object file : files.toArray()) {
+                    Files.delete((Path) file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Load a profile file from several threads at once. The files are read outside of the lock,
+     * afterwards every thread has to get the same calibration and the cache has to hold a single descriptor.
+     */
+    private static void loadConcurrently(Path directory) throws IOException {
+        CalibrationProfiles profiles = new CalibrationProfiles(directory, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<FacialExpressionDescriptor>> loads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                loads.add(executor.submit(() -> profiles.load("subject-1", "camera-1")));
+            }
+            FacialExpressionDescriptor cached = profiles.load("subject-1", "camera-1");
+            Path expectedFile = Files.createTempFile(directory, "expected", ".tmp");
+            Path actualFile = Files.createTempFile(directory, "actual", ".tmp");
+            CalibrationProfiles.write(expectedFile, cached);
+            for (Future<FacialExpressionDescriptor> load : loads) {
+                CalibrationProfiles.write(actualFile, load.get());
+                if (!Arrays.equals(Files.readAllBytes(expectedFile), Files.readAllBytes(actualFile))) {
+                    throw new RuntimeException("A concurrently loaded profile differs.");
+                }
+            }
+            if (profiles.load("subject-1", "camera-1") != cached) {
+                throw new RuntimeException("The concurrently loaded profile was not cached once.");
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Loading the profile concurrently failed.", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String describe(ClassificationResult[] results) {
+        StringBuilder description = new StringBuilder();
+        for (ClassificationResult result : results) {
+            description.append(result.getWinnerIndex()).append(' ').append(result.getBelief()).append(' ').append(result.getPlausability())
+                    .append(' ').append(result.getDoubt()).append(' ').append(result.getConflict()).append('\n');
+        }
+        return description.toString();
+    }
+
+    private static void compare(String expected, String actual, String source) {
+        if (!expected.equals(actual)) {
+            throw new RuntimeException("The classification with " + source + " differs.");
+        }
+    }
+}
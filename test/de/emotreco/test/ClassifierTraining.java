@@ -16,7 +16,7 @@ public class ClassifierTraining {
      * The first TRAINING_FRAME_AMOUNT frames were analysed from hand.
      * These are the solution definitions on which the classifier should be trained on.
      */
-    private static final String[][] trainingEmotionSolutions = new String[][] {
+    static final String[][] trainingEmotionSolutions = new String[][] {
             { // file 1
                     "NEUTRAL","NEUTRAL","NEUTRAL","NEUTRAL","NEUTRAL",
                     "SADNESS","SADNESS","SADNESS","SADNESS","SADNESS",
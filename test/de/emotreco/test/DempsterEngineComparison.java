@@ -0,0 +1,114 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.facialexpressionmodel.FacialExpression;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.main.dempster.CombinationPlanCache;
+import de.emotreco.main.dempster.DempsterHandler;
+import de.emotreco.main.dempster.Measure;
+import de.emotreco.main.dempster.MeasureEntry;
+import de.emotreco.main.dempster.MeasureSummary;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class is for verifying that all implementations of the DempsterHandler accumulate the frames of the sample files identically.
+ * The bitmask engine accumulates with cached plans, see CombinationPlanCache.
+ * It also verifies that a MeasureSummary reports the same values as the queries of the Measure, also for more
+ * alternatives than fit into a bitmask, and that Measure.getWinner selects the first entry of the entries sorted by probability.
+ */
+public class DempsterEngineComparison {
+
+    private static final String[] SAMPLE_FILES = { "data/emo_muster_1_1.csv", "data/emo_muster_1_2.csv", "data/emo_muster_1_3.csv" };
+    /** more alternatives than fit into a bitmask, see BitmaskMeasure.MAX_SIZE */
+    private static final int WIDE_SIZE = 70;
+
+    /**
+     * Alternative entry point for executing the comparison. Fails with an exception on the first difference.
+     * @param args the csv files to compare, the sample files if none are given
+     * @throws IOException if a sample file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        for (String fileName : args.length > 0 ? args : SAMPLE_FILES) {
+            FeatureFrame[] featureFrames = new FeatureImporter().convert(new CSVImporter(fileName).readFile());
+            FacialExpressionDescriptor descriptor = new FacialExpressionDescriptor(featureFrames);
+
+            for (int i = 0; i < featureFrames.length; i++) {
+                FacialExpression[] expressions = descriptor.describeFrame(featureFrames[i]);
+                Measure referenceMeasure = accumulate(expressions, DempsterHandler.Engine.LIST);
+                Measure bitmaskMeasure = accumulate(expressions, DempsterHandler.Engine.BITMASK);
+                String reference = referenceMeasure.toString() + "conflict: " + referenceMeasure.getConflict() + "\n";
+                String bitmask = bitmaskMeasure.toString() + "conflict: " + bitmaskMeasure.getConflict() + "\n";
+                if (!reference.equals(bitmask)) {
+                    throw new RuntimeException("Engines differ in " + fileName + " frame " + (i + 1)
+                            + ".\nLIST:\n" + reference + "BITMASK:\n" + bitmask);
+                }
+                compareSummary(referenceMeasure, fileName, i);
+            }
+            System.out.println(fileName + ": " + featureFrames.length + " frames identical.");
+        }
+        compareWideSummary();
+        CombinationPlanCache planCache = DempsterHandler.getPlanCache(5);
+        System.out.println("Plan cache: " + planCache.getHits() + " hits, " + planCache.getMisses() + " misses, "
+                + planCache.getEvictions() + " evictions, " + planCache.getFallbacks() + " fallbacks");
+    }
+
+    private static void compareSummary(Measure measure, String fileName, int frame) {
+        MeasureSummary summary = measure.summarize();
+        List<MeasureEntry> sorted = new ArrayList<>(measure.getMeasureEntrys());
+        sorted.sort((o1, o2) -> Double.compare(o2.getProbability(), o1.getProbability()));
+        if (measure.getWinner() != sorted.get(0)) {
+            throw new RuntimeException("Winner differs from the sorted entries in " + fileName + " frame " + (frame + 1) + ".");
+        }
+        if (summary.getWinnerIndex() != measure.getWinner().getEmotionIndex()) {
+            throw new RuntimeException("Summary winner differs in " + fileName + " frame " + (frame + 1) + ".");
+        }
+        for (int index = 0; index < measure.getFrame().size(); index++) {
+            if (summary.getBelief(index) != measure.calculateBelief(index)
+                    || summary.getPlausability(index) != measure.calculatePlausability(index)
+                    || summary.getDoubt(index) != measure.calculateDoubt(index)) {
+                throw new RuntimeException("Summary of alternative " + index + " differs in " + fileName + " frame " + (frame + 1) + ".");
+            }
+        }
+    }
+
+    /**
+     * Accumulates random measures of WIDE_SIZE alternatives with the LIST engine and compares their summary.
+     */
+    private static void compareWideSummary() {
+        Random random = new Random(1);
+        DempsterHandler dempsterHandler = new DempsterHandler(WIDE_SIZE, DempsterHandler.Engine.LIST);
+        for (int i = 0; i < 4; i++) {
+            Measure measure = dempsterHandler.addMeasure();
+            for (int entry = 0; entry < 3; entry++) {
+                // Every focal set holds the last alternative, so the combinations never conflict
+                List<Integer> set = new ArrayList<>();
+                for (int alternative = 0; alternative < WIDE_SIZE - 1; alternative++) {
+                    set.add(entry == 0 && alternative != 0 ? 0 : random.nextInt(2));
+                }
+                set.add(1);
+                measure.addEntry(set, 0.2 * random.nextDouble());
+            }
+        }
+        dempsterHandler.accumulateAllMeasures();
+        compareSummary(dempsterHandler.getFirstMeasure(), WIDE_SIZE + " alternatives", 0);
+        System.out.println(WIDE_SIZE + " alternatives: summary identical.");
+    }
+
+    private static Measure accumulate(FacialExpression[] expressions, DempsterHandler.Engine engine) {
+        DempsterHandler dempsterHandler = new DempsterHandler(5, engine);
+        for (FacialExpression expression : expressions) {
+            if (expression != null) {
+                dempsterHandler.addMeasure().addEntry(expression.getMatchingBinaries(), expression.getConfidence());
+            }
+        }
+        dempsterHandler.accumulateAllMeasures();
+        return dempsterHandler.getFirstMeasure();
+    }
+
+}
@@ -0,0 +1,17 @@
+package de.emotreco.test;
+
+import java.io.OutputStream;
+
+/**
+ * Swallows everything written to it. Used when the printed results are not of interest.
+ */
+class DiscardingOutputStream extends OutputStream {
+
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+}
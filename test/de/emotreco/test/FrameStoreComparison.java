@@ -0,0 +1,96 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.facialexpressionmodel.FacialExpressionDescriptor;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.featuremodel.FrameStore;
+import de.emotreco.main.ClassificationContext;
+import de.emotreco.main.ClassificationResult;
+
+import java.io.IOException;
+
+/**
+ * This class is for verifying that a FrameStore holds the same raw values and features as CSVFrames and FeatureFrames,
+ * also after the chunks grew over several chunks, and that descriptor and classification built from the store match
+ * the ones built from the FeatureFrames.
+ */
+public class FrameStoreComparison {
+
+    private static final String[] SAMPLE_FILES = { "data/emo_muster_1_1.csv", "data/emo_muster_1_2.csv", "data/emo_muster_1_3.csv" };
+
+    /**
+     * Alternative entry point for executing the comparison. Fails with an exception on the first difference.
+     * @param args the csv files to compare, the sample files if none are given
+     * @throws IOException if a file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        for (String fileName : args.length > 0 ? args : SAMPLE_FILES) {
+            CSVFrame[] csvFrames = new CSVImporter(fileName).readFile();
+            FeatureFrame[] featureFrames = new FeatureImporter().convert(csvFrames);
+            FrameStore store = FrameStore.read(fileName);
+            if (store.getFrameCount() != featureFrames.length) {
+                throw new RuntimeException(fileName + " has " + store.getFrameCount() + " frames in the store instead of " + featureFrames.length + ".");
+            }
+
+            for (int frame = 0; frame < featureFrames.length; frame++) {
+                for (int column = 0; column < CSVImporter.COLUMN_NAMES.length; column++) {
+                    if (store.isEmpty(column, frame) != csvFrames[frame].isEmpty(column)
+                            || store.getInt(column, frame) != csvFrames[frame].getInt(column)) {
+                        throw new RuntimeException("Column " + column + " of frame " + (frame + 1) + " in " + fileName + " differs.");
+                    }
+                }
+                for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+                    if (store.hasFeature(i, frame) != featureFrames[frame].hasFeature(i)
+                            || Float.compare(store.getFeature(i, frame), featureFrames[frame].getFeature(i)) != 0) {
+                        throw new RuntimeException("Feature " + i + " of frame " + (frame + 1) + " in " + fileName + " differs.");
+                    }
+                }
+            }
+
+            ClassificationContext expectedContext = new ClassificationContext(new FacialExpressionDescriptor(featureFrames));
+            ClassificationContext storeContext = new ClassificationContext(new FacialExpressionDescriptor(store));
+            ClassificationResult expected = new ClassificationResult();
+            ClassificationResult actual = new ClassificationResult();
+            for (int frame = 0; frame < featureFrames.length; frame++) {
+                expectedContext.classifyFrame(featureFrames[frame], expected);
+                storeContext.classifyFrame(store, frame, actual);
+                if (expected.getWinnerIndex() != actual.getWinnerIndex() || expected.getBelief() != actual.getBelief()
+                        || expected.getPlausability() != actual.getPlausability() || expected.getConflict() != actual.getConflict()) {
+                    throw new RuntimeException("Classification of frame " + (frame + 1) + " in " + fileName + " differs.");
+                }
+            }
+
+            if (store.hasAscendingFrameNumbers()) {
+                for (int frame = 0; frame < featureFrames.length; frame += Math.max(1, featureFrames.length / 100)) {
+                    if (store.indexOfFrameNumber(csvFrames[frame].getFrameNumber()) != frame) {
+                        throw new RuntimeException("Frame number " + csvFrames[frame].getFrameNumber() + " in " + fileName + " was not found.");
+                    }
+                }
+            }
+
+            // Append the frames again until the store spans more than one chunk and the last one has to grow
+            int frameCount = FrameStore.CHUNK_SIZE + 2 * FrameStore.INITIAL_CHUNK_SIZE + 1;
+            while (store.getFrameCount() < frameCount) {
+                store.append(csvFrames[store.getFrameCount() % csvFrames.length]);
+            }
+            for (int frame = 0; frame < store.getFrameCount(); frame++) {
+                FeatureFrame featureFrame = featureFrames[frame % featureFrames.length];
+                for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+                    if (store.hasFeature(i, frame) != featureFrame.hasFeature(i)
+                            || Float.compare(store.getFeature(i, frame), featureFrame.getFeature(i)) != 0) {
+                        throw new RuntimeException("Feature " + i + " of appended frame " + (frame + 1) + " in " + fileName + " differs.");
+                    }
+                }
+            }
+            int lastChunk = store.getChunkCount() - 1;
+            if (store.getChunkCount() != 2 || store.getFeatureChunk(0, lastChunk).length >= FrameStore.CHUNK_SIZE) {
+                throw new RuntimeException("The last chunk of " + store.getFrameCount() + " frames holds "
+                        + store.getFeatureChunk(0, lastChunk).length + " frames instead of growing lazily.");
+            }
+            System.out.println(fileName + ": " + featureFrames.length + " frames identical, " + store.getFrameCount() + " frames in "
+                    + store.getChunkCount() + " chunks identical.");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.main.ClassificationResult;
+import de.emotreco.main.EmotionClassifier;
+import de.emotreco.main.LiveEmotionClassifier;
+import de.emotreco.main.ResultSink;
+import de.emotreco.main.dempster.Measure;
+import de.emotreco.main.dempster.MeasureSummary;
+
+import java.io.IOException;
+
+import static de.emotreco.facialexpressionmodel.FacialExpressionDescriptor.TRAINING_FRAME_AMOUNT;
+
+/**
+ * This class is for verifying that a LiveEmotionClassifier classifies the frames of the sample files like EmotionClassifier,
+ * that a frame without any measured feature gives a vacuous measure and that the latency budget is kept per frame.
+ */
+public class LiveClassificationComparison {
+
+    private static final String[] SAMPLE_FILES = { "data/emo_muster_1_1.csv", "data/emo_muster_1_2.csv", "data/emo_muster_1_3.csv" };
+
+    /**
+     * Alternative entry point for executing the comparison. Fails with an exception on the first difference.
+     * @param args the csv files to compare, the sample files if none are given
+     * @throws IOException if a sample file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        for (String fileName : args.length > 0 ? args : SAMPLE_FILES) {
+            CSVFrame[] csvFrames = new CSVImporter(fileName).readFile();
+            ClassificationResult[] expected = new EmotionClassifier(ResultSink.SILENT).classifyFileResults(fileName);
+
+            LiveEmotionClassifier classifier = new LiveEmotionClassifier();
+            for (int frame = 0; frame < csvFrames.length; frame++) {
+                Measure emotion = classifier.push(csvFrames[frame]);
+                if (frame < TRAINING_FRAME_AMOUNT) {
+                    if (emotion != null) {
+                        throw new RuntimeException("Frame " + (frame + 1) + " of " + fileName + " was classified during the calibration.");
+                    }
+                    continue;
+                }
+                MeasureSummary summary = emotion.summarize();
+                int winner = summary.getWinnerIndex();
+                if (winner != expected[frame].getWinnerIndex()
+                        || winner >= 0 && (summary.getBelief(winner) != expected[frame].getBelief()
+                        || summary.getPlausability(winner) != expected[frame].getPlausability())) {
+                    throw new RuntimeException("Frame " + (frame + 1) + " of " + fileName + " differs from EmotionClassifier.");
+                }
+            }
+
+            CSVFrame lastFrame = csvFrames[csvFrames.length - 1];
+            String[] cells = lastFrame.getCsvRow().split(";", -1);
+            for (int column = CSVImporter.FOB; column < cells.length; column++) {
+                cells[column] = "";
+            }
+            Measure unknown = classifier.push(new CSVFrame(String.join(";", cells)));
+            // Only the omega-entry is left
+            if (unknown.getMeasureEntrys().size() != 1) {
+                throw new RuntimeException("A frame without features of " + fileName + " has evidence: " + unknown);
+            }
+
+            // Nothing fits into a budget of 0, only the first frame is classified and always with the first calibration
+            LiveEmotionClassifier overBudget = new LiveEmotionClassifier(TRAINING_FRAME_AMOUNT, true);
+            overBudget.setLatencyBudgetNanos(0);
+            for (CSVFrame csvFrame : csvFrames) {
+                overBudget.push(csvFrame);
+            }
+            long classifiedFrames = csvFrames.length - TRAINING_FRAME_AMOUNT;
+            if (overBudget.getFramesSkipped() != classifiedFrames - 1 || overBudget.getRebuildsDeferred() != classifiedFrames) {
+                throw new RuntimeException(fileName + " skipped " + overBudget.getFramesSkipped() + " frames and deferred "
+                        + overBudget.getRebuildsDeferred() + " rebuilds with a budget of 0.");
+            }
+            System.out.println(fileName + ": " + classifiedFrames + " live frames identical.");
+        }
+    }
+}
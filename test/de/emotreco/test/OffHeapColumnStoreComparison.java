@@ -0,0 +1,119 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVColumnStore;
+import de.emotreco.csvmodel.CSVFrame;
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.csvmodel.OffHeapCSVColumnStore;
+import de.emotreco.featuremodel.CSVFeatureView;
+import de.emotreco.featuremodel.FeatureFrame;
+import de.emotreco.featuremodel.FeatureImporter;
+import de.emotreco.main.ClassificationResult;
+import de.emotreco.main.EmotionClassifier;
+import de.emotreco.main.ResultSink;
+
+import java.io.IOException;
+
+/**
+ * This class is for verifying that an OffHeapCSVColumnStore holds the same cells as the CSVColumnStore of a file
+ * and can not be used after it was closed, that closing returns its segments to the pool for the next store, that a CSVFeatureView on it derives the same features as FeatureFrames,
+ * and that classifying from the off-heap columns gives the same results as classifying FeatureFrames.
+ */
+public class OffHeapColumnStoreComparison {
+
+    private static final String[] SAMPLE_FILES = { "data/emo_muster_1_1.csv", "data/emo_muster_1_2.csv", "data/emo_muster_1_3.csv" };
+
+    /**
+     * Alternative entry point for executing the comparison. Fails with an exception on the first difference.
+     * @param args the csv files to compare, the sample files if none are given
+     * @throws IOException if a file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        for (String fileName : args.length > 0 ? args : SAMPLE_FILES) {
+            CSVColumnStore expected = new CSVImporter(fileName).readColumns();
+            CSVFrame firstFrame;
+            long offHeapBytes;
+            OffHeapCSVColumnStore actual = new CSVImporter(fileName).readColumnsOffHeap();
+            try (OffHeapCSVColumnStore store = actual) {
+                if (store.getRowCount() != expected.getRowCount()) {
+                    throw new RuntimeException(fileName + " has " + store.getRowCount() + " rows off the heap instead of " + expected.getRowCount() + ".");
+                }
+                for (int row = 0; row < expected.getRowCount(); row++) {
+                    for (int column = 0; column < expected.getColumnCount(); column++) {
+                        if (store.isEmpty(column, row) != expected.isEmpty(column, row) || store.getInt(column, row) != expected.getInt(column, row)) {
+                            throw new RuntimeException("Column " + column + " of row " + (row + 1) + " in " + fileName + " differs.");
+                        }
+                    }
+                }
+                FeatureFrame[] featureFrames = new FeatureImporter().convert(expected.getFrames());
+                CSVFeatureView features = new CSVFeatureView(store);
+                for (int frame = 0; frame < featureFrames.length; frame++) {
+                    for (int i = 0; i < FeatureImporter.FEATURE_COLUMN_NAMES.length; i++) {
+                        if (features.hasFeature(i, frame) != featureFrames[frame].hasFeature(i)
+                                || Float.compare(features.getFeature(i, frame), featureFrames[frame].getFeature(i)) != 0) {
+                            throw new RuntimeException("Feature " + i + " of frame " + (frame + 1) + " in " + fileName + " differs.");
+                        }
+                    }
+                }
+                firstFrame = store.getFrame(0);
+                if (!firstFrame.getCsvRow().equals(expected.getFrame(0).getCsvRow())) {
+                    throw new RuntimeException("The first frame of " + fileName + " differs.");
+                }
+                offHeapBytes = store.getOffHeapBytes();
+            }
+
+            try {
+                firstFrame.getInt(CSVImporter.NR);
+                throw new RuntimeException("A frame of a closed store could be read.");
+            } catch (IllegalStateException e) {
+                // Expected, the memory was released
+            }
+
+            long pooledBytes = OffHeapCSVColumnStore.getPooledBytes();
+            if (pooledBytes < offHeapBytes) {
+                throw new RuntimeException("Closing the store of " + fileName + " left " + pooledBytes + " bytes in the pool instead of " + offHeapBytes + ".");
+            }
+            try (OffHeapCSVColumnStore store = new CSVImporter(fileName).readColumnsOffHeap()) {
+                if (OffHeapCSVColumnStore.getPooledBytes() != pooledBytes - store.getOffHeapBytes()) {
+                    throw new RuntimeException("Reading " + fileName + " again did not take the segments of the closed store.");
+                }
+                for (int row = 0; row < expected.getRowCount(); row++) {
+                    for (int column = 0; column < expected.getColumnCount(); column++) {
+                        if (store.isEmpty(column, row) != expected.isEmpty(column, row) || store.getInt(column, row) != expected.getInt(column, row)) {
+                            throw new RuntimeException("Column " + column + " of row " + (row + 1) + " in " + fileName + " differs in a pooled segment.");
+                        }
+                    }
+                }
+            }
+
+            compareClassification(fileName, 1, false);
+            compareClassification(fileName, 2, false);
+            compareClassification(fileName, 1, true);
+            System.out.println(fileName + ": " + expected.getRowCount() + " rows identical, " + offHeapBytes / 1024 + " KB off the heap.");
+        }
+    }
+
+    private static void compareClassification(String fileName, int parallelism, boolean temporalFusion) {
+        ClassificationResult[] expected = createClassifier(parallelism, temporalFusion, false).classifyFileResults(fileName);
+        ClassificationResult[] actual = createClassifier(parallelism, temporalFusion, true).classifyFileResults(fileName);
+        if (expected.length != actual.length) {
+            throw new RuntimeException(fileName + " has " + actual.length + " results off the heap instead of " + expected.length + ".");
+        }
+        for (int frame = 0; frame < expected.length; frame++) {
+            if (expected[frame].getWinnerIndex() != actual[frame].getWinnerIndex() || expected[frame].getBelief() != actual[frame].getBelief()
+                    || expected[frame].getPlausability() != actual[frame].getPlausability() || expected[frame].getConflict() != actual[frame].getConflict()) {
+                throw new RuntimeException("Classification of frame " + (frame + 1) + " in " + fileName + " differs off the heap"
+                        + " with " + parallelism + " threads" + (temporalFusion ? " and temporal fusion." : "."));
+            }
+        }
+    }
+
+    private static EmotionClassifier createClassifier(int parallelism, boolean temporalFusion, boolean offHeapColumns) {
+        EmotionClassifier classifier = new EmotionClassifier(ResultSink.SILENT);
+        classifier.setParallelism(parallelism);
+        if (temporalFusion) {
+            classifier.setTemporalFusion(5, 0.8);
+        }
+        classifier.setOffHeapColumns(offHeapColumns);
+        return classifier;
+    }
+}
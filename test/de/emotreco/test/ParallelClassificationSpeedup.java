@@ -0,0 +1,72 @@
+package de.emotreco.test;
+
+import de.emotreco.main.ClassificationResult;
+import de.emotreco.main.EmotionClassifier;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class is for measuring the speedup of the parallel frame classification on a long synthetic file.
+ * The file is generated by the SyntheticDataGenerator. The parallel results have to be identical to the sequential ones.
+ */
+public class ParallelClassificationSpeedup {
+
+    private static final int DEFAULT_FRAME_AMOUNT = 200_000;
+    private static final int RUNS = 3;
+
+    /**
+     * Alternative entry point for executing the measurement.
+     * @param args optional amount of frames of the synthetic file
+     * @throws IOException if the synthetic file could not be written
+     */
+    public static void main(String[] args) throws IOException {
+        int frameAmount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAME_AMOUNT;
+        Path syntheticFile = SyntheticDataGenerator.generateTemporaryFile(frameAmount);
+        try {
+            ClassificationResult[] reference = null;
+            long sequentialNanos = 0;
+            int maxParallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+            // Warm up, so the sequential run is not slowed down by compilation
+            new EmotionClassifier(new PrintStream(new DiscardingOutputStream())).classifyFileResults(syntheticFile.toString());
+
+            System.out.println("Classifying " + frameAmount + " frames on " + Runtime.getRuntime().availableProcessors() + " cores");
+
+            for (int parallelism = 1; parallelism <= maxParallelism; parallelism *= 2) {
+                EmotionClassifier classifier = new EmotionClassifier(new PrintStream(new DiscardingOutputStream()));
+                classifier.setParallelism(parallelism);
+
+                long bestNanos = Long.MAX_VALUE;
+                ClassificationResult[] results = null;
+                for (int run = 0; run < RUNS; run++) {
+                    long start = System.nanoTime();
+                    results = classifier.classifyFileResults(syntheticFile.toString());
+                    bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                }
+
+                if (reference == null) {
+                    reference = results;
+                    sequentialNanos = bestNanos;
+                } else {
+                    compare(reference, results, parallelism);
+                }
+                System.out.println("Threads=" + parallelism + " time=" + bestNanos / 1_000_000 + " ms speedup="
+                        + String.format("%.2f", sequentialNanos / (double) bestNanos));
+            }
+        } finally {
+            Files.delete(syntheticFile);
+        }
+    }
+
+    private static void compare(ClassificationResult[] reference, ClassificationResult[] results, int parallelism) {
+        for (int i = 0; i < reference.length; i++) {
+            if (reference[i].getWinnerIndex() != results[i].getWinnerIndex() || reference[i].getBelief() != results[i].getBelief()
+                    || reference[i].getPlausability() != results[i].getPlausability() || reference[i].getConflict() != results[i].getConflict()) {
+                throw new RuntimeException("Frame " + (i + 1) + " differs with " + parallelism + " threads.");
+            }
+        }
+    }
+
+}
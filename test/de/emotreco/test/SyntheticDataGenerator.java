@@ -0,0 +1,191 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVColumnStore;
+import de.emotreco.csvmodel.CSVImporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static de.emotreco.facialexpressionmodel.FacialExpressionDescriptor.TRAINING_FRAME_AMOUNT;
+
+/**
+ * This class is for generating large .csv files in the format of the CSVImporter for load and accuracy tests.
+ * The value distributions are derived from the hand labelled frames of the sample files: for every sample file (a subject)
+ * and emotion the mean and standard deviation of each column are taken. A generated recording follows one subject and
+ * alternates NEUTRAL segments with segments of the other labelled emotions. The emotion of every frame can be written
+ * to a label file, one emotion per line.
+ *
+ * Arguments: output.csv [--frames 1000000] [--seed 1] [--subject 0] [--empty-rate 0.01] [--segment 5,60] [--labels output.labels]
+ */
+public class SyntheticDataGenerator {
+
+    static final String[] SAMPLE_FILES = { "data/emo_muster_1_1.csv", "data/emo_muster_1_2.csv", "data/emo_muster_1_3.csv" };
+    private static final String NEUTRAL = "NEUTRAL";
+    // Columns before this one describe the face position and are never left empty
+    private static final int FIRST_FEATURE_COLUMN = CSVImporter.FOB;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Random random;
+    private final double emptyCellRate;
+    private final int minSegmentLength, maxSegmentLength;
+    // The emotions which were labelled in the sample files, NEUTRAL first
+    private final List<String> emotions = new ArrayList<>();
+    // mean[emotion][column] and deviation[emotion][column] of the chosen subject
+    private final double[][] mean, deviation;
+
+    /**
+     * Create a generator following one subject of the sample files.
+     *
+     * @param seed seed of the random values, equal seeds generate equal files
+     * @param subject index of the sample file whose value distributions are used
+     * @param emptyCellRate probability of a feature cell being left empty
+     * @param minSegmentLength minimal amount of frames showing the same emotion
+     * @param maxSegmentLength maximal amount of frames showing the same emotion
+     * @throws IOException if a sample file could not be read
+     */
+    public SyntheticDataGenerator(long seed, int subject, double emptyCellRate, int minSegmentLength, int maxSegmentLength) throws IOException {
+        if (minSegmentLength < 1 || maxSegmentLength < minSegmentLength) {
+            throw new IllegalArgumentException("Invalid segment length " + minSegmentLength + " to " + maxSegmentLength + ".");
+        }
+        this.random = new Random(seed);
+        this.emptyCellRate = emptyCellRate;
+        this.minSegmentLength = minSegmentLength;
+        this.maxSegmentLength = maxSegmentLength;
+
+        CSVColumnStore samples = new CSVImporter(SAMPLE_FILES[subject]).readColumns();
+        String[] labels = ClassifierTraining.trainingEmotionSolutions[subject];
+        emotions.add(NEUTRAL);
+        for (String label : labels) {
+            if (!emotions.contains(label)) {
+                emotions.add(label);
+            }
+        }
+
+        int columnCount = CSVImporter.COLUMN_NAMES.length;
+        mean = new double[emotions.size()][columnCount];
+        deviation = new double[emotions.size()][columnCount];
+        for (int emotion = 0; emotion < emotions.size(); emotion++) {
+            for (int column = 1; column < columnCount; column++) {
+                double sum = 0, squaredSum = 0;
+                int count = 0;
+                for (int row = 0; row < TRAINING_FRAME_AMOUNT; row++) {
+                    if (labels[row].equals(emotions.get(emotion)) && !samples.isEmpty(column, row)) {
+                        double value = samples.getInt(column, row);
+                        sum += value;
+                        squaredSum += value * value;
+                        count++;
+                    }
+                }
+                mean[emotion][column] = sum / count;
+                deviation[emotion][column] = Math.sqrt(Math.max(0, squaredSum / count - mean[emotion][column] * mean[emotion][column]));
+            }
+        }
+    }
+
+    /**
+     * Alternative entry point for generating a file.
+     * @param args see class description
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: SyntheticDataGenerator output.csv [--frames 1000000] [--seed 1] [--subject 0] [--empty-rate 0.01] [--segment 5,60] [--labels output.labels]");
+            return;
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+        String[] segment = options.getOrDefault("--segment", "5,60").split(",");
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                Long.parseLong(options.getOrDefault("--seed", "1")),
+                Integer.parseInt(options.getOrDefault("--subject", "0")),
+                Double.parseDouble(options.getOrDefault("--empty-rate", "0.01")),
+                Integer.parseInt(segment[0]), Integer.parseInt(segment[1]));
+        long frameAmount = Long.parseLong(options.getOrDefault("--frames", "1000000"));
+        Path labelFile = options.containsKey("--labels") ? Paths.get(options.get("--labels")) : null;
+
+        long start = System.nanoTime();
+        generator.generate(Paths.get(args[0]), labelFile, frameAmount);
+        System.out.println("Generated " + frameAmount + " frames in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Generate a temporary file with default settings, e.g. for benchmarks. The caller has to delete the file.
+     *
+     * @param frameAmount amount of rows after the header
+     * @return path of the temporary file
+     * @throws IOException if a file could not be read or written
+     */
+    public static Path generateTemporaryFile(long frameAmount) throws IOException {
+        Path file = Files.createTempFile("emotion-recognition-synthetic", ".csv");
+        new SyntheticDataGenerator(1, 0, 0.01, 5, 60).generate(file, null, frameAmount);
+        return file;
+    }
+
+    /**
+     * Write a recording. The rows are generated while writing, so the amount of frames is only limited by the disk.
+     *
+     * @param csvFile the file to write the frames to
+     * @param labelFile the file to write the emotion of every frame to, can be null
+     * @param frameAmount amount of rows after the header
+     * @throws IOException if a file could not be written
+     */
+    public void generate(Path csvFile, Path labelFile, long frameAmount) throws IOException {
+        try (Writer csvWriter = new BufferedWriter(Files.newBufferedWriter(csvFile), BUFFER_SIZE);
+             Writer labelWriter = labelFile == null ? null : new BufferedWriter(Files.newBufferedWriter(labelFile), BUFFER_SIZE)) {
+            csvWriter.write(String.join(";", CSVImporter.COLUMN_NAMES));
+            csvWriter.write('\n');
+
+            StringBuilder row = new StringBuilder();
+            long frame = 0;
+            int segment = 0;
+            while (frame < frameAmount) {
+                // NEUTRAL alternates with one of the other emotions like in the sample files
+                int emotion = segment++ % 2 == 0 || emotions.size() == 1 ? 0 : 1 + random.nextInt(emotions.size() - 1);
+                int segmentLength = minSegmentLength + random.nextInt(maxSegmentLength - minSegmentLength + 1);
+                for (int i = 0; i < segmentLength && frame < frameAmount; i++) {
+                    frame++;
+                    writeRow(row, frame, emotion);
+                    csvWriter.append(row);
+                    if (labelWriter != null) {
+                        labelWriter.write(emotions.get(emotion));
+                        labelWriter.write('\n');
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeRow(StringBuilder row, long frame, int emotion) {
+        row.setLength(0);
+        row.append(frame);
+        for (int column = 1; column < CSVImporter.COLUMN_NAMES.length; column++) {
+            row.append(';');
+            if (column < FIRST_FEATURE_COLUMN || random.nextDouble() >= emptyCellRate) {
+                long value = Math.round(mean[emotion][column] + random.nextGaussian() * deviation[emotion][column]);
+                row.append(Math.max(0, value));
+            }
+        }
+        row.append('\n');
+    }
+
+    /**
+     * Get the emotions which can be generated.
+     *
+     * @return the emotions labelled in the sample files, NEUTRAL first
+     */
+    public List<String> getEmotions() {
+        return emotions;
+    }
+}
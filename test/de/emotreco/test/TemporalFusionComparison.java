@@ -0,0 +1,173 @@
+package de.emotreco.test;
+
+import de.emotreco.csvmodel.CSVImporter;
+import de.emotreco.main.ClassificationResult;
+import de.emotreco.main.EmotionClassifier;
+import de.emotreco.main.ResultSink;
+import de.emotreco.main.dempster.DempsterHandler;
+import de.emotreco.main.dempster.Measure;
+import de.emotreco.main.dempster.MeasureSummary;
+import de.emotreco.main.dempster.TemporalFusion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class is for verifying that a windowed TemporalFusion fuses exactly the frames of its window.
+ * The measures are random but never conflict, so the grouping of the combinations does not matter. Without discount the
+ * fusion has to match a DempsterHandler accumulating the frames of the window and the current frame, and with a
+ * reliability of 0 only the current frame may count.
+ * It also verifies that a frame without any measured feature can be classified with temporal fusion.
+ */
+public class TemporalFusionComparison {
+
+    private static final int SIZE = 5;
+    private static final int FRAME_AMOUNT = 2000;
+    private static final int[] WINDOWS = { 1, 2, 5, 64 };
+    private static final double TOLERANCE = 1e-9;
+
+    private static final String SAMPLE_FILE = "data/emo_muster_1_1.csv";
+    /** row of the sample file whose features are removed, counted from 1 after the header */
+    private static final int EMPTY_ROW = 45;
+    /** window for classifying without temporal fusion */
+    private static final int NO_FUSION = -1;
+
+    /**
+     * Alternative entry point for executing the comparison. Fails with an exception on the first difference.
+     * @param args not used
+     * @throws IOException if the sample file could not be read or the copy without features could not be written
+     */
+    public static void main(String[] args) throws IOException {
+        List<List<List<Integer>>> focalSets = new ArrayList<>();
+        List<double[]> probabilities = new ArrayList<>();
+        Random random = new Random(1);
+        for (int frame = 0; frame < FRAME_AMOUNT; frame++) {
+            List<List<Integer>> sets = new ArrayList<>();
+            double[] values = new double[1 + random.nextInt(3)];
+            for (int entry = 0; entry < values.length; entry++) {
+                // Every focal set holds the first alternative, so no combination can conflict
+                List<Integer> set = new ArrayList<>();
+                set.add(1);
+                for (int i = 1; i < SIZE; i++) {
+                    set.add(random.nextInt(2));
+                }
+                sets.add(set);
+                values[entry] = 0.3 * random.nextDouble();
+            }
+            focalSets.add(sets);
+            probabilities.add(values);
+        }
+
+        for (int window : WINDOWS) {
+            TemporalFusion fusion = new TemporalFusion(SIZE, window, 1.0);
+            TemporalFusion currentOnly = new TemporalFusion(SIZE, window, 0.0);
+            for (int frame = 0; frame < FRAME_AMOUNT; frame++) {
+                Measure current = createMeasure(focalSets.get(frame), probabilities.get(frame));
+
+                DempsterHandler dempsterHandler = new DempsterHandler(SIZE, DempsterHandler.Engine.LIST);
+                dempsterHandler.setOrder(DempsterHandler.Order.LEFT_FOLD);
+                for (int previous = Math.max(0, frame - window); previous <= frame; previous++) {
+                    Measure measure = dempsterHandler.addMeasure();
+                    for (int entry = 0; entry < probabilities.get(previous).length; entry++) {
+                        measure.addEntry(focalSets.get(previous).get(entry), probabilities.get(previous)[entry]);
+                    }
+                }
+                dempsterHandler.accumulateAllMeasures();
+
+                compare(dempsterHandler.getFirstMeasure(), fusion.push(current), "Window " + window + " frame " + (frame + 1));
+                compare(current, currentOnly.push(current), "Window " + window + " frame " + (frame + 1) + " with reliability 0");
+            }
+            System.out.println("Window " + window + ": " + FRAME_AMOUNT + " frames identical.");
+        }
+
+        classifyEmptyFrame();
+    }
+
+    /**
+     * Classifies a copy of the sample file with a row without features. Without fusion this row has no winner,
+     * with fusion it keeps the evidence of the previous frames. Every way of classifying a file has to agree.
+     */
+    private static void classifyEmptyFrame() throws IOException {
+        List<String> rows = Files.readAllLines(Paths.get(SAMPLE_FILE));
+        String[] cells = rows.get(EMPTY_ROW).split(";", -1);
+        for (int column = CSVImporter.FOB; column < cells.length; column++) {
+            cells[column] = "";
+        }
+        rows.set(EMPTY_ROW, String.join(";", cells));
+        Path file = Files.createTempFile("emotion-empty-frame", ".csv");
+        try {
+            Files.write(file, rows);
+            if (classify(file, NO_FUSION, false)[EMPTY_ROW - 1].getWinnerIndex() != -1
+                    || classifyWithLists(file, NO_FUSION)[EMPTY_ROW - 1].getWinnerIndex() != -1) {
+                throw new RuntimeException("Row " + EMPTY_ROW + " has a winner without features.");
+            }
+            for (int window : new int[] { 5, TemporalFusion.UNBOUNDED }) {
+                ClassificationResult[] expected = classify(file, window, false);
+                ClassificationResult[] offHeap = classify(file, window, true);
+                ClassificationResult[] lists = classifyWithLists(file, window);
+                List<ClassificationResult> streamed = new ArrayList<>();
+                createClassifier(window, false).classifyFileStreaming(file.toString(), result -> streamed.add(new ClassificationResult(result)));
+                if (expected[EMPTY_ROW - 1].getWinnerIndex() == -1) {
+                    throw new RuntimeException("Row " + EMPTY_ROW + " lost the fused evidence of the previous frames with window " + window + ".");
+                }
+                for (int frame = 0; frame < expected.length; frame++) {
+                    if (!isSame(expected[frame], offHeap[frame]) || !isSame(expected[frame], streamed.get(frame))
+                            || !isSame(expected[frame], lists[frame])) {
+                        throw new RuntimeException("Frame " + (frame + 1) + " differs between the ways of classifying with window " + window + ".");
+                    }
+                }
+            }
+            System.out.println("Frame without features fused.");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static ClassificationResult[] classify(Path file, int window, boolean offHeapColumns) {
+        return createClassifier(window, offHeapColumns).classifyFileResults(file.toString());
+    }
+
+    private static ClassificationResult[] classifyWithLists(Path file, int window) {
+        EmotionClassifier classifier = createClassifier(window, false);
+        classifier.setEngine(DempsterHandler.Engine.LIST);
+        return classifier.classifyFileResults(file.toString());
+    }
+
+    private static EmotionClassifier createClassifier(int window, boolean offHeapColumns) {
+        EmotionClassifier classifier = new EmotionClassifier(ResultSink.SILENT);
+        if (window != NO_FUSION) {
+            classifier.setTemporalFusion(window, 0.8);
+        }
+        classifier.setOffHeapColumns(offHeapColumns);
+        return classifier;
+    }
+
+    private static boolean isSame(ClassificationResult expected, ClassificationResult actual) {
+        return expected.getWinnerIndex() == actual.getWinnerIndex() && expected.getBelief() == actual.getBelief()
+                && expected.getPlausability() == actual.getPlausability() && expected.getConflict() == actual.getConflict();
+    }
+
+    private static Measure createMeasure(List<List<Integer>> sets, double[] values) {
+        Measure measure = new Measure(SIZE);
+        for (int entry = 0; entry < values.length; entry++) {
+            measure.addEntry(sets.get(entry), values[entry]);
+        }
+        return measure;
+    }
+
+    private static void compare(Measure expected, Measure actual, String name) {
+        MeasureSummary expectedSummary = expected.summarize();
+        MeasureSummary actualSummary = actual.summarize();
+        for (int index = 0; index < SIZE; index++) {
+            if (Math.abs(expectedSummary.getBelief(index) - actualSummary.getBelief(index)) > TOLERANCE
+                    || Math.abs(expectedSummary.getPlausability(index) - actualSummary.getPlausability(index)) > TOLERANCE) {
+                throw new RuntimeException(name + " differs in alternative " + index + ".\nExpected:\n" + expected + "Fused:\n" + actual);
+            }
+        }
+    }
+}